@@ -0,0 +1,130 @@
+package ec.edu.espe.transaccion.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Escribe los spans terminados como una línea JSON por span en <ruta>/spans-<servicio>.jsonl. Con ambos
+// microservicios escribiendo en el mismo directorio, filtrar por traceId muestra el desglose completo de una
+// solicitud sin un colector externo. Al superar el tamaño máximo el archivo pasa a .1 y se empieza otro.
+@Slf4j
+public class ExportadorSpansArchivo implements SpanExporter {
+
+    private static final AttributeKey<String> NOMBRE_SERVICIO = AttributeKey.stringKey("service.name");
+
+    private final ObjectMapper objectMapper;
+    private final Path archivo;
+    private final long tamanioMaximo;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private BufferedWriter escritor;
+    private long tamanioActual;
+
+    public ExportadorSpansArchivo(ObjectMapper objectMapper, Path directorio, String servicio, long tamanioMaximo) {
+        this.objectMapper = objectMapper;
+        this.archivo = directorio.resolve("spans-" + servicio + ".jsonl");
+        this.tamanioMaximo = tamanioMaximo;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        lock.lock();
+        try {
+            if (escritor == null) {
+                abrir();
+            }
+            for (SpanData span : spans) {
+                String linea = objectMapper.writeValueAsString(aMapa(span));
+                escritor.write(linea);
+                escritor.newLine();
+                // El límite de rotación es en bytes del archivo, no en caracteres
+                tamanioActual += linea.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator().length();
+            }
+            escritor.flush();
+            if (tamanioActual > tamanioMaximo) {
+                rotar();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("No se pudieron exportar {} spans a {}: {}", spans.size(), archivo, e.getMessage());
+            cerrarEscritor();
+            return CompletableResultCode.ofFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        lock.lock();
+        try {
+            cerrarEscritor();
+        } finally {
+            lock.unlock();
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private Map<String, Object> aMapa(SpanData span) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("traceId", span.getTraceId());
+        datos.put("spanId", span.getSpanId());
+        datos.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+        datos.put("servicio", span.getResource().getAttribute(NOMBRE_SERVICIO));
+        datos.put("nombre", span.getName());
+        datos.put("tipo", span.getKind().name());
+        datos.put("inicio", Instant.ofEpochSecond(0, span.getStartEpochNanos()).toString());
+        datos.put("duracionMs", TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()) / 1000.0);
+        datos.put("estado", span.getStatus().getStatusCode().name());
+        Map<String, Object> atributos = new LinkedHashMap<>();
+        span.getAttributes().forEach((clave, valor) -> atributos.put(clave.getKey(), valor));
+        datos.put("atributos", atributos);
+        return datos;
+    }
+
+    private void abrir() throws IOException {
+        Files.createDirectories(archivo.getParent());
+        escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        tamanioActual = Files.size(archivo);
+    }
+
+    private void rotar() throws IOException {
+        cerrarEscritor();
+        Files.move(archivo, archivo.resolveSibling(archivo.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        abrir();
+    }
+
+    private void cerrarEscritor() {
+        if (escritor == null) {
+            return;
+        }
+        try {
+            escritor.close();
+        } catch (IOException e) {
+            log.debug("Error al cerrar el archivo de spans: {}", e.getMessage());
+        }
+        escritor = null;
+    }
+}
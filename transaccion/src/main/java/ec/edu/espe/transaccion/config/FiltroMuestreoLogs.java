@@ -0,0 +1,65 @@
+package ec.edu.espe.transaccion.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Deja pasar uno de cada <tasa> eventos de nivel INFO o inferior de los loggers indicados; WARN y ERROR se
+// registran siempre. Se evalúa antes de construir el evento, así que lo descartado no cuesta formato ni cola.
+// Cada logger lleva su propia cuenta, así uno muy ruidoso no decide qué mensajes de los demás se registran.
+public class FiltroMuestreoLogs extends TurboFilter {
+
+    private static final LongAdder MUESTREADOS = new LongAdder();
+
+    private final List<String> prefijos = new ArrayList<>();
+    private final Map<String, AtomicLong> contadores = new ConcurrentHashMap<>();
+    private int tasa = 1;
+
+    public static long descartados() {
+        return MUESTREADOS.sum();
+    }
+
+    // Nombre de un logger o prefijo de paquete; se puede repetir en la configuración
+    public void addPrefijo(String prefijo) {
+        prefijos.add(prefijo);
+    }
+
+    public void setTasa(int tasa) {
+        this.tasa = Math.max(1, tasa);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (tasa == 1 || level == null || level.isGreaterOrEqual(Level.WARN) || !aplica(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // isInfoEnabled() y similares llegan sin formato: no son un evento y no cuentan para el muestreo
+        if (format == null) {
+            return FilterReply.NEUTRAL;
+        }
+        AtomicLong contador = contadores.computeIfAbsent(logger.getName(), nombre -> new AtomicLong());
+        if (contador.getAndIncrement() % tasa == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        MUESTREADOS.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean aplica(String nombre) {
+        for (String prefijo : prefijos) {
+            if (nombre.startsWith(prefijo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
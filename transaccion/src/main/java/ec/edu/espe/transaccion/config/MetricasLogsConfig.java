@@ -0,0 +1,34 @@
+package ec.edu.espe.transaccion.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Métricas del pipeline de logs definido en logback-spring.xml
+@Configuration
+public class MetricasLogsConfig {
+
+    @Bean
+    public MeterBinder metricasLogs() {
+        return registry -> {
+            AppenderAsincronoContado.instancias().forEach((nombre, appender) -> registrar(registry, nombre, appender));
+            FunctionCounter.builder("logs.muestreados", FiltroMuestreoLogs.class, filtro -> FiltroMuestreoLogs.descartados())
+                    .description("Eventos de log omitidos por el muestreo de loggers de alto volumen")
+                    .register(registry);
+        };
+    }
+
+    private static void registrar(MeterRegistry registry, String nombre, AppenderAsincronoContado appender) {
+        FunctionCounter.builder("logs.descartados", appender, AppenderAsincronoContado::descartados)
+                .description("Eventos de log descartados porque la cola del appender asíncrono estaba llena")
+                .tag("appender", nombre)
+                .register(registry);
+        Gauge.builder("logs.pendientes", appender, AppenderAsincronoContado::pendientes)
+                .description("Eventos de log en la cola del appender asíncrono")
+                .tag("appender", nombre)
+                .register(registry);
+    }
+}
@@ -0,0 +1,22 @@
+package ec.edu.espe.transaccion.config;
+
+import ec.edu.espe.transaccion.repositorio.TransaccionTurnoReactivoRepositorio;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+// El cliente reactivo de Mongo (con su propio pool de conexiones) y TransaccionTurnoReactivoRepositorio solo se
+// crean con la ruta reactiva habilitada. TransaccionApplication excluye las autoconfiguraciones reactivas y aquí
+// se importan con @Import (@ImportAutoConfiguration respeta esa exclusión). Declarar los repositorios reactivos
+// desactiva la autoconfiguración de los bloqueantes, por eso también se declaran
+@Configuration
+@ConditionalOnProperty(name = "transaccion.reactivo.habilitado", havingValue = "true")
+@Import({MongoReactiveAutoConfiguration.class, MongoReactiveDataAutoConfiguration.class})
+@EnableMongoRepositories(basePackageClasses = TransaccionTurnoReactivoRepositorio.class)
+@EnableReactiveMongoRepositories(basePackageClasses = TransaccionTurnoReactivoRepositorio.class)
+public class MongoReactivoConfig {
+}
@@ -1,14 +1,84 @@
 package ec.edu.espe.transaccion.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class TurnoServiceConfig {
 
+    @Value("${turno.service.http.max-conexiones:200}")
+    private int maxConexiones;
+
+    @Value("${turno.service.http.max-conexiones-por-ruta:50}")
+    private int maxConexionesPorRuta;
+
+    @Value("${turno.service.http.timeout-conexion:2s}")
+    private Duration timeoutConexion;
+
+    @Value("${turno.service.http.timeout-lectura:5s}")
+    private Duration timeoutLectura;
+
+    @Value("${turno.service.http.timeout-pool:1s}")
+    private Duration timeoutPool;
+
+    @Value("${turno.service.http.keep-alive:30s}")
+    private Duration keepAlive;
+
+    @Value("${turno.service.http.inactividad-maxima:30s}")
+    private Duration inactividadMaxima;
+
+    @Bean
+    public PoolingHttpClientConnectionManager turnoConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConexiones)
+                .setMaxConnPerRoute(maxConexionesPorRuta)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(timeoutConexion))
+                        .setSocketTimeout(Timeout.of(timeoutLectura))
+                        .setValidateAfterInactivity(TimeValue.of(inactividadMaxima))
+                        .build())
+                .build();
+
+        // Expone httpcomponents.httpclient.pool.* (conexiones libres, en uso y peticiones en espera)
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "turno-service").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient turnoHttpClient(PoolingHttpClientConnectionManager turnoConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(turnoConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(timeoutPool))
+                        .setResponseTimeout(Timeout.of(timeoutLectura))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(inactividadMaxima))
+                .build();
+    }
+
+    // Construido con el builder de Spring para que cada llamada quede observada y propague el contexto de traza
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient turnoHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(turnoHttpClient))
+                .build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package ec.edu.espe.transaccion.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+// Cliente no bloqueante hacia el microservicio de turnos para la ruta reactiva; usa los mismos
+// límites y tiempos que el pool de RestTemplate (turno.service.http.*)
+@Configuration
+@ConditionalOnProperty(name = "transaccion.reactivo.habilitado", havingValue = "true")
+public class TurnoWebClientConfig {
+
+    @Value("${turno.service.url:http://localhost:8083}")
+    private String turnoServiceUrl;
+
+    @Value("${turno.service.http.max-conexiones:200}")
+    private int maxConexiones;
+
+    @Value("${turno.service.http.timeout-conexion:2s}")
+    private Duration timeoutConexion;
+
+    @Value("${turno.service.http.timeout-lectura:5s}")
+    private Duration timeoutLectura;
+
+    @Value("${turno.service.http.timeout-pool:1s}")
+    private Duration timeoutPool;
+
+    @Value("${turno.service.http.inactividad-maxima:30s}")
+    private Duration inactividadMaxima;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider turnoConnectionProvider() {
+        // Expone reactor.netty.connection.provider.* con el nombre "turno-service"
+        return ConnectionProvider.builder("turno-service")
+                .maxConnections(maxConexiones)
+                .pendingAcquireTimeout(timeoutPool)
+                .maxIdleTime(inactividadMaxima)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient turnoWebClient(WebClient.Builder builder, ConnectionProvider turnoConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(turnoConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutConexion.toMillis())
+                .responseTimeout(timeoutLectura);
+        return builder
+                .baseUrl(turnoServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
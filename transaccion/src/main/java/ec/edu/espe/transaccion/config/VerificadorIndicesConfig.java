@@ -0,0 +1,169 @@
+package ec.edu.espe.transaccion.config;
+
+import com.mongodb.MongoException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Al arrancar crea los índices declarados en las entidades (@Indexed, @CompoundIndex) y revisa que cada consulta
+// derivada de los repositorios tenga un índice cuyo primer campo sea uno de los campos filtrados; si no lo hay,
+// la consulta recorrerá la colección completa. Se hace en un hilo aparte y se reintenta mientras Mongo no
+// responda, así el contexto arranca aunque la base no esté disponible (no se usa auto-index-creation, que
+// conecta al crear el MongoTemplate). Hasta que los índices existen, el indicador de salud "indicesMongo" está
+// DOWN y con él la disponibilidad (readiness): los índices únicos sostienen la deduplicación y no se debe recibir
+// tráfico sin ellos. Un índice existente con otras opciones no se corrige reintentando: se informa y se deja DOWN
+@Configuration
+@Slf4j
+public class VerificadorIndicesConfig {
+
+    // IndexOptionsConflict, IndexKeySpecsConflict y DuplicateKey
+    private static final Set<Integer> CONFLICTOS = Set.of(85, 86, 11000);
+
+    private final ApplicationContext applicationContext;
+    private final MongoTemplate mongoTemplate;
+    private final Duration esperaReintento;
+
+    private volatile boolean activo;
+    // null mientras no se hayan creado; "listos" o el motivo por el que no se pueden crear
+    private volatile String estado;
+    private volatile boolean listos;
+
+    public VerificadorIndicesConfig(
+            ApplicationContext applicationContext,
+            MongoTemplate mongoTemplate,
+            @Value("${indices.espera-reintento:5s}") Duration esperaReintento) {
+        this.applicationContext = applicationContext;
+        this.mongoTemplate = mongoTemplate;
+        this.esperaReintento = esperaReintento;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepararIndices() {
+        activo = true;
+        Thread.ofPlatform().name("indices-mongo").daemon().start(this::crearYVerificar);
+    }
+
+    @Bean
+    public HealthIndicator indicesMongoHealthIndicator() {
+        return () -> listos
+            ? Health.up().build()
+            : Health.down().withDetail("indices", estado == null ? "pendientes" : estado).build();
+    }
+
+    public boolean indicesListos() {
+        return listos;
+    }
+
+    @PreDestroy
+    void detener() {
+        activo = false;
+    }
+
+    private void crearYVerificar() {
+        while (activo) {
+            try {
+                crearIndices();
+                listos = true;
+                estado = "listos";
+                verificarIndices();
+                return;
+            } catch (RuntimeException e) {
+                if (esConflictoPermanente(e)) {
+                    estado = e.getMessage();
+                    log.error("Un índice existente no coincide con el declarado en las entidades; corríjalo a mano: {}", e.getMessage());
+                    return;
+                }
+                log.warn("No se pudieron crear los índices, se reintentará en {}: {}", esperaReintento, e.getMessage());
+            }
+            try {
+                Thread.sleep(esperaReintento.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void crearIndices() {
+        var mappingContext = mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        for (MongoPersistentEntity<?> entidad : mappingContext.getPersistentEntities()) {
+            if (!entidad.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations operaciones = mongoTemplate.indexOps(entidad.getType());
+            resolver.resolveIndexFor(entidad.getTypeInformation()).forEach(operaciones::ensureIndex);
+        }
+    }
+
+    // Opciones o claves distintas en un índice del mismo nombre, o datos duplicados que impiden un índice único
+    private boolean esConflictoPermanente(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof MongoException mongo && CONFLICTOS.contains(mongo.getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void verificarIndices() {
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> tipoDominio : repositories) {
+            repositories.getRepositoryInformationFor(tipoDominio)
+                .ifPresent(informacion -> verificarRepositorio(tipoDominio, informacion));
+        }
+    }
+
+    private void verificarRepositorio(Class<?> tipoDominio, RepositoryInformation informacion) {
+        List<IndexInfo> indices = mongoTemplate.indexOps(tipoDominio).getIndexInfo();
+
+        for (Method metodo : informacion.getQueryMethods()) {
+            Set<String> campos = camposFiltrados(metodo, tipoDominio);
+            if (campos.isEmpty()) {
+                continue;
+            }
+            boolean soportada = indices.stream()
+                .anyMatch(indice -> !indice.getIndexFields().isEmpty()
+                    && campos.contains(indice.getIndexFields().get(0).getKey()));
+            if (!soportada) {
+                log.warn("La consulta {}.{} no tiene un índice que la soporte (campos: {})",
+                    informacion.getRepositoryInterface().getSimpleName(), metodo.getName(), campos);
+            }
+        }
+    }
+
+    private Set<String> camposFiltrados(Method metodo, Class<?> tipoDominio) {
+        try {
+            return new PartTree(metodo.getName(), tipoDominio).getParts().stream()
+                .map(Part::getProperty)
+                .map(propiedad -> "id".equals(propiedad.toDotPath()) ? "_id" : propiedad.toDotPath())
+                .collect(Collectors.toSet());
+        } catch (Exception e) {
+            // Consultas con @Query u otros métodos que no se derivan del nombre
+            return Set.of();
+        }
+    }
+}
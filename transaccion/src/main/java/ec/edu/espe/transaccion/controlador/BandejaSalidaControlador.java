@@ -0,0 +1,35 @@
+package ec.edu.espe.transaccion.controlador;
+
+import ec.edu.espe.transaccion.dto.ResultadoPublicacionDTO;
+import ec.edu.espe.transaccion.eventos.BandejaSalidaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/eventos/turnos")
+@Tag(name = "Eventos de Turnos", description = "Publicación de eventos pendientes, usada por el microservicio de turnos al cerrar")
+@RequiredArgsConstructor
+@Slf4j
+public class BandejaSalidaControlador {
+
+    private final BandejaSalidaService bandejaSalidaService;
+
+    @PostMapping("/{codigoTurno}/publicar")
+    @Operation(summary = "Publicar eventos del turno", description = "Entrega al microservicio de turnos todas las transacciones del turno que aún no se publicaron")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Eventos publicados"),
+            @ApiResponse(responseCode = "500", description = "No se pudieron publicar; el cierre debe reintentarse")
+    })
+    public ResponseEntity<ResultadoPublicacionDTO> publicarPendientes(@PathVariable String codigoTurno) {
+        log.info("Solicitud para publicar eventos pendientes del turno: {}", codigoTurno);
+
+        int publicados = bandejaSalidaService.publicarPendientesDelTurno(codigoTurno);
+        return ResponseEntity.ok(new ResultadoPublicacionDTO(codigoTurno, publicados));
+    }
+}
@@ -0,0 +1,33 @@
+package ec.edu.espe.transaccion.controlador;
+
+import ec.edu.espe.transaccion.servicio.TurnoAbiertoCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache/turnos")
+@Tag(name = "Caché de Turnos", description = "Invalidación de turnos validados, usada por el microservicio de turnos")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheTurnoControlador {
+
+    private final TurnoAbiertoCache turnoAbiertoCache;
+
+    @DeleteMapping("/{codigoTurno}")
+    @Operation(summary = "Invalidar turno", description = "Elimina un turno de la caché para que deje de aceptar transacciones")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Turno invalidado")
+    })
+    public ResponseEntity<Void> invalidarTurno(@PathVariable String codigoTurno) {
+        log.info("Solicitud para invalidar turno en caché: {}", codigoTurno);
+
+        turnoAbiertoCache.invalidar(codigoTurno);
+        return ResponseEntity.noContent().build();
+    }
+}
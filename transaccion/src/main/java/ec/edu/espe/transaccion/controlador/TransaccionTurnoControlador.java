@@ -1,24 +1,40 @@
 package ec.edu.espe.transaccion.controlador;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.edu.espe.transaccion.dto.PaginaDTO;
+import ec.edu.espe.transaccion.dto.ResultadoItemLoteDTO;
+import ec.edu.espe.transaccion.dto.ResultadoLoteDTO;
 import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
 import ec.edu.espe.transaccion.dto.TransaccionTurnoDTO;
 import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapper;
 import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import ec.edu.espe.transaccion.servicio.IdempotenciaService;
 import ec.edu.espe.transaccion.servicio.TransaccionTurnoService;
+import ec.edu.espe.transaccion.validacion.ResultadoValidacion;
+import ec.edu.espe.transaccion.validacion.ValidadorSolicitudes;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/transacciones")
@@ -29,9 +45,14 @@ public class TransaccionTurnoControlador {
 
     private final TransaccionTurnoService transaccionTurnoService;
     private final TransaccionTurnoMapper transaccionTurnoMapper;
+    private final ObjectMapper objectMapper;
+    private final ValidadorSolicitudes validadorSolicitudes;
+    private final IdempotenciaService idempotenciaService;
+
+    @Value("${transaccion.lote.tamanio-maximo:5000}")
+    private int tamanioMaximoLote;
     
-    private static final Set<Integer> DENOMINACIONES_VALIDAS = Set.of(1, 5, 10, 20, 50, 100);
-    private static final Set<String> TIPOS_TRANSACCION_VALIDOS = Set.of("INICIO", "AHORRO", "DEPOSITO", "CIERRE");
+    private static final int TAMANIO_MAXIMO_PAGINA = 1000;
 
     @PostMapping("/procesar")
     @Operation(summary = "Procesar transacción", description = "Procesa una nueva transacción para un turno específico")
@@ -41,19 +62,55 @@ public class TransaccionTurnoControlador {
             @ApiResponse(responseCode = "404", description = "Turno no encontrado"),
             @ApiResponse(responseCode = "409", description = "El turno no está abierto")
     })
-    public ResponseEntity<TransaccionTurnoDTO> procesarTransaccion(@Valid @RequestBody TransaccionTurnoCreacionDTO dto) {
+    public ResponseEntity<TransaccionTurnoDTO> procesarTransaccion(
+            @Valid @RequestBody TransaccionTurnoCreacionDTO dto,
+            @Parameter(description = "Clave única del cliente (por caja y cajero) para reintentar sin duplicar la transacción")
+            @RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia) {
         log.info("Solicitud para procesar transacción: tipo={}, turno={}", dto.getTipoTransaccion(), dto.getCodigoTurno());
         
         // Validaciones
-        validarCodigoCaja(dto.getCodigoCaja());
-        validarCodigoCajero(dto.getCodigoCajero());
-        validarCodigoTurno(dto.getCodigoTurno());
-        validarTipoTransaccion(dto.getTipoTransaccion());
-        validarMontoTotal(dto.getMontoTotal());
-        validarDenominaciones(dto.getDenominaciones(), dto.getMontoTotal());
+        ResultadoValidacion validacion = validadorSolicitudes.validarSolicitudTransaccion(dto);
+        validadorSolicitudes.validarClaveIdempotencia(claveIdempotencia, validacion);
+        validacion.lanzarSiHayErrores();
         
-        TransaccionTurno transaccion = transaccionTurnoService.procesarTransaccion(dto);
-        return ResponseEntity.ok(transaccionTurnoMapper.toDTO(transaccion));
+        if (claveIdempotencia == null) {
+            TransaccionTurno transaccion = transaccionTurnoService.procesarTransaccion(dto);
+            return ResponseEntity.ok(transaccionTurnoMapper.toDTO(transaccion));
+        }
+        // Un reintento con la misma clave devuelve la transacción original sin procesarla de nuevo
+        return ResponseEntity.ok(idempotenciaService.ejecutar(claveIdempotencia, dto,
+                () -> transaccionTurnoMapper.toDTO(transaccionTurnoService.procesarTransaccion(dto, claveIdempotencia))));
+    }
+
+    @PostMapping("/procesar-lote")
+    @Operation(summary = "Procesar lote de transacciones", description = "Procesa varias transacciones en una sola petición y devuelve el resultado de cada una")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote procesado; revisar el resultado de cada ítem"),
+            @ApiResponse(responseCode = "400", description = "Lote vacío o demasiado grande")
+    })
+    public ResponseEntity<ResultadoLoteDTO> procesarLote(@RequestBody List<TransaccionTurnoCreacionDTO> dtos) {
+        log.info("Solicitud para procesar lote de transacciones: {}", dtos == null ? 0 : dtos.size());
+
+        validarTamanioLote(dtos);
+
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>();
+        Map<Integer, TransaccionTurnoCreacionDTO> solicitudesValidas = new LinkedHashMap<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            ResultadoValidacion validacion = validadorSolicitudes.validarSolicitudTransaccion(dtos.get(i));
+            if (validacion.esValido()) {
+                solicitudesValidas.put(i, dtos.get(i));
+            } else {
+                resultados.add(new ResultadoItemLoteDTO(i, false, null, String.join("; ", validacion.getErrores())));
+            }
+        }
+
+        if (!solicitudesValidas.isEmpty()) {
+            resultados.addAll(transaccionTurnoService.procesarLote(solicitudesValidas));
+        }
+        resultados.sort(Comparator.comparing(ResultadoItemLoteDTO::getIndice));
+
+        int exitosas = (int) resultados.stream().filter(ResultadoItemLoteDTO::isExitoso).count();
+        return ResponseEntity.ok(new ResultadoLoteDTO(dtos.size(), exitosas, dtos.size() - exitosas, resultados));
     }
 
     @GetMapping("/turno/{codigoTurno}")
@@ -64,7 +121,9 @@ public class TransaccionTurnoControlador {
     public ResponseEntity<List<TransaccionTurnoDTO>> listarTransaccionesPorTurno(@PathVariable String codigoTurno) {
         log.info("Solicitud para listar transacciones del turno: {}", codigoTurno);
         
-        validarCodigoTurno(codigoTurno);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validacion.lanzarSiHayErrores();
         
         List<TransaccionTurno> transacciones = transaccionTurnoService.listarTransaccionesPorTurno(codigoTurno);
         List<TransaccionTurnoDTO> transaccionesDTO = transacciones.stream()
@@ -74,6 +133,58 @@ public class TransaccionTurnoControlador {
         return ResponseEntity.ok(transaccionesDTO);
     }
 
+    @GetMapping("/turno/{codigoTurno}/pagina")
+    @Operation(summary = "Listar transacciones por turno (paginado)", description = "Lista las transacciones de un turno por páginas usando el cursor de la página anterior")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos")
+    })
+    public ResponseEntity<PaginaDTO<TransaccionTurnoDTO>> listarTransaccionesPorTurnoPaginado(
+            @PathVariable String codigoTurno,
+            @RequestParam(required = false) String despuesDe,
+            @RequestParam(defaultValue = "100") int tamanio) {
+
+        log.info("Solicitud para listar página de transacciones: turno={}, despuesDe={}, tamanio={}", codigoTurno, despuesDe, tamanio);
+
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validarPaginacion(validacion, despuesDe, tamanio);
+        validacion.lanzarSiHayErrores();
+
+        List<TransaccionTurno> transacciones = transaccionTurnoService.listarTransaccionesPorTurno(codigoTurno, despuesDe, tamanio);
+        List<TransaccionTurnoDTO> transaccionesDTO = transacciones.stream()
+                .map(transaccionTurnoMapper::toDTO)
+                .collect(Collectors.toList());
+        String siguienteCursor = transacciones.size() < tamanio ? null : transacciones.get(transacciones.size() - 1).getId();
+
+        return ResponseEntity.ok(new PaginaDTO<>(transaccionesDTO, siguienteCursor));
+    }
+
+    @GetMapping(value = "/turno/{codigoTurno}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Transmitir transacciones por turno", description = "Devuelve todas las transacciones de un turno como NDJSON, leyendo de un cursor de la base de datos")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transmisión iniciada")
+    })
+    public ResponseEntity<StreamingResponseBody> streamTransaccionesPorTurno(@PathVariable String codigoTurno) {
+        log.info("Solicitud para transmitir transacciones del turno: {}", codigoTurno);
+
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validacion.lanzarSiHayErrores();
+
+        StreamingResponseBody cuerpo = salida -> {
+            try (Stream<TransaccionTurno> transacciones = transaccionTurnoService.streamTransaccionesPorTurno(codigoTurno)) {
+                Iterator<TransaccionTurno> iterador = transacciones.iterator();
+                while (iterador.hasNext()) {
+                    salida.write(objectMapper.writeValueAsBytes(transaccionTurnoMapper.toDTO(iterador.next())));
+                    salida.write('\n');
+                }
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
+
     @GetMapping("/turno/{codigoTurno}/tipo/{tipoTransaccion}")
     @Operation(summary = "Listar transacciones por tipo", description = "Lista las transacciones de un turno por tipo específico")
     @ApiResponses({
@@ -85,8 +196,10 @@ public class TransaccionTurnoControlador {
         
         log.info("Solicitud para listar transacciones: turno={}, tipo={}", codigoTurno, tipoTransaccion);
         
-        validarCodigoTurno(codigoTurno);
-        validarTipoTransaccion(tipoTransaccion);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validadorSolicitudes.validarTipoTransaccion(tipoTransaccion, validacion);
+        validacion.lanzarSiHayErrores();
         
         List<TransaccionTurno> transacciones = transaccionTurnoService.listarTransaccionesPorTipo(codigoTurno, tipoTransaccion);
         List<TransaccionTurnoDTO> transaccionesDTO = transacciones.stream()
@@ -105,7 +218,9 @@ public class TransaccionTurnoControlador {
     public ResponseEntity<TransaccionTurnoDTO> obtenerTransaccion(@PathVariable String codigoTransaccion) {
         log.info("Solicitud para obtener transacción: {}", codigoTransaccion);
         
-        validarCodigoTransaccion(codigoTransaccion);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTransaccion(codigoTransaccion, validacion);
+        validacion.lanzarSiHayErrores();
         
         TransaccionTurno transaccion = transaccionTurnoService.obtenerTransaccion(codigoTransaccion);
         return ResponseEntity.ok(transaccionTurnoMapper.toDTO(transaccion));
@@ -113,86 +228,21 @@ public class TransaccionTurnoControlador {
 
     // ================= VALIDACIONES =================
 
-    private void validarCodigoCaja(String codigoCaja) {
-        if (codigoCaja == null || codigoCaja.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de caja es requerido");
-        }
-        if (!codigoCaja.matches("^CAJ\\d{2}$")) {
-            throw new IllegalArgumentException("Formato de código caja inválido. Use: CAJ01, CAJ02, etc.");
-        }
-    }
-
-    private void validarCodigoCajero(String codigoCajero) {
-        if (codigoCajero == null || codigoCajero.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de cajero es requerido");
-        }
-        if (!codigoCajero.matches("^USU\\d{2}$")) {
-            throw new IllegalArgumentException("Formato de código cajero inválido. Use: USU01, USU02, etc.");
-        }
-    }
-
-    private void validarCodigoTurno(String codigoTurno) {
-        if (codigoTurno == null || codigoTurno.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de turno es requerido");
-        }
-        if (!codigoTurno.matches("^CAJ\\d{2}-USU\\d{2}-\\d{8}$")) {
-            throw new IllegalArgumentException("Formato de código turno inválido. Use: CAJ01-USU01-20250109");
-        }
-    }
-
-    private void validarCodigoTransaccion(String codigoTransaccion) {
-        if (codigoTransaccion == null || codigoTransaccion.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de transacción es requerido");
+    private void validarTamanioLote(List<TransaccionTurnoCreacionDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("El lote de transacciones es requerido");
         }
-        if (!codigoTransaccion.matches("^TXN[A-Z0-9]{8}$")) {
-            throw new IllegalArgumentException("Formato de código transacción inválido. Use: TXN12345678");
+        if (dtos.size() > tamanioMaximoLote) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + tamanioMaximoLote + " transacciones");
         }
     }
 
-    private void validarTipoTransaccion(String tipoTransaccion) {
-        if (tipoTransaccion == null || tipoTransaccion.trim().isEmpty()) {
-            throw new IllegalArgumentException("Tipo de transacción es requerido");
+    private void validarPaginacion(ResultadoValidacion resultado, String despuesDe, int tamanio) {
+        if (tamanio <= 0 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            resultado.agregarError("Tamaño de página inválido. Use un valor entre 1 y " + TAMANIO_MAXIMO_PAGINA);
         }
-        if (!TIPOS_TRANSACCION_VALIDOS.contains(tipoTransaccion.toUpperCase())) {
-            throw new IllegalArgumentException("Tipo de transacción inválido. Use: INICIO, AHORRO, DEPOSITO, CIERRE");
-        }
-    }
-
-    private void validarMontoTotal(BigDecimal montoTotal) {
-        if (montoTotal == null || montoTotal.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Monto total debe ser mayor a 0");
-        }
-    }
-
-    private void validarDenominaciones(List<ec.edu.espe.transaccion.dto.DenominacionDTO> denominaciones, BigDecimal montoTotal) {
-        if (denominaciones == null || denominaciones.isEmpty()) {
-            throw new IllegalArgumentException("Las denominaciones son requeridas");
-        }
-
-        BigDecimal suma = BigDecimal.ZERO;
-        for (ec.edu.espe.transaccion.dto.DenominacionDTO den : denominaciones) {
-            if (!DENOMINACIONES_VALIDAS.contains(den.getBillete())) {
-                throw new IllegalArgumentException("Denominación no válida: " + den.getBillete() + ". Use: 1, 5, 10, 20, 50, 100");
-            }
-            if (den.getCantidad() == null || den.getCantidad() <= 0) {
-                throw new IllegalArgumentException("Cantidad debe ser mayor a 0 para denominación: " + den.getBillete());
-            }
-            if (den.getMonto() == null || den.getMonto().compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Monto debe ser mayor a 0 para denominación: " + den.getBillete());
-            }
-            
-            // Calcular el monto esperado: billete * cantidad
-            BigDecimal montoEsperado = BigDecimal.valueOf(den.getBillete()).multiply(BigDecimal.valueOf(den.getCantidad()));
-            if (montoEsperado.compareTo(den.getMonto()) != 0) {
-                throw new IllegalArgumentException("Monto no coincide con billete * cantidad para denominación: " + den.getBillete() + 
-                    ". Esperado: " + montoEsperado + ", Recibido: " + den.getMonto());
-            }
-            
-            suma = suma.add(den.getMonto());
-        }
-
-        if (suma.compareTo(montoTotal) != 0) {
-            throw new IllegalArgumentException("La suma de denominaciones (" + suma + ") no coincide con el monto total (" + montoTotal + ")");
+        if (despuesDe != null && !ObjectId.isValid(despuesDe)) {
+            resultado.agregarError("Cursor de paginación inválido: " + despuesDe);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package ec.edu.espe.transaccion.controlador;
+
+import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.dto.TransaccionTurnoDTO;
+import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapper;
+import ec.edu.espe.transaccion.servicio.TransaccionTurnoReactivaService;
+import ec.edu.espe.transaccion.validacion.ResultadoValidacion;
+import ec.edu.espe.transaccion.validacion.ValidadorSolicitudes;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Mismos endpoints que TransaccionTurnoControlador, pero devuelven Mono/Flux: el hilo de Tomcat se libera
+// mientras se espera al servicio de turnos y a Mongo, y la respuesta se completa desde los hilos de E/S.
+// Es un contrato reducido: sin Idempotency-Key (se rechaza), sin escritura diferida y sin métricas por etapa.
+@RestController
+@RequestMapping("/api/reactivo/transacciones")
+@ConditionalOnProperty(name = "transaccion.reactivo.habilitado", havingValue = "true")
+@Tag(name = "Transacciones de Turno (reactivo)", description = "Procesamiento y consulta de transacciones sin bloquear hilos. "
+        + "Contrato reducido respecto de /api/transacciones: no admite Idempotency-Key, siempre escribe en línea y no registra métricas por etapa")
+@RequiredArgsConstructor
+@Slf4j
+public class TransaccionTurnoReactivoControlador {
+
+    private final TransaccionTurnoReactivaService transaccionTurnoReactivaService;
+    private final TransaccionTurnoMapper transaccionTurnoMapper;
+    private final ValidadorSolicitudes validadorSolicitudes;
+
+    @PostMapping("/procesar")
+    @Operation(summary = "Procesar transacción", description = "Procesa una nueva transacción para un turno específico. "
+            + "Un reintento crea otra transacción; para reintentar sin duplicar use /api/transacciones/procesar con Idempotency-Key")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transacción procesada exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o solicitud con Idempotency-Key"),
+            @ApiResponse(responseCode = "404", description = "Turno no encontrado"),
+            @ApiResponse(responseCode = "409", description = "El turno no está abierto")
+    })
+    public Mono<TransaccionTurnoDTO> procesarTransaccion(
+            @Valid @RequestBody TransaccionTurnoCreacionDTO dto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String claveIdempotencia) {
+        log.info("Solicitud reactiva para procesar transacción: tipo={}, turno={}", dto.getTipoTransaccion(), dto.getCodigoTurno());
+
+        ResultadoValidacion validacion = validadorSolicitudes.validarSolicitudTransaccion(dto);
+        // Aceptarla sin aplicarla haría creer al cliente que puede reintentar sin duplicar
+        if (claveIdempotencia != null) {
+            validacion.agregarError("La ruta reactiva no admite Idempotency-Key; use /api/transacciones/procesar");
+        }
+        validacion.lanzarSiHayErrores();
+
+        return transaccionTurnoReactivaService.procesarTransaccion(dto)
+                .map(transaccionTurnoMapper::toDTO);
+    }
+
+    @GetMapping(value = "/turno/{codigoTurno}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Listar transacciones por turno", description = "Lista las transacciones de un turno; con Accept: application/x-ndjson se transmiten a medida que llegan de Mongo")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Listado obtenido exitosamente")
+    })
+    public Flux<TransaccionTurnoDTO> listarTransaccionesPorTurno(@PathVariable String codigoTurno) {
+        log.info("Solicitud reactiva para listar transacciones del turno: {}", codigoTurno);
+
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validacion.lanzarSiHayErrores();
+
+        return transaccionTurnoReactivaService.listarTransaccionesPorTurno(codigoTurno)
+                .map(transaccionTurnoMapper::toDTO);
+    }
+
+    @GetMapping(value = "/turno/{codigoTurno}/tipo/{tipoTransaccion}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Listar transacciones por tipo", description = "Lista las transacciones de un turno por tipo específico")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Listado obtenido exitosamente")
+    })
+    public Flux<TransaccionTurnoDTO> listarTransaccionesPorTipo(
+            @PathVariable String codigoTurno,
+            @PathVariable String tipoTransaccion) {
+
+        log.info("Solicitud reactiva para listar transacciones: turno={}, tipo={}", codigoTurno, tipoTransaccion);
+
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validadorSolicitudes.validarTipoTransaccion(tipoTransaccion, validacion);
+        validacion.lanzarSiHayErrores();
+
+        return transaccionTurnoReactivaService.listarTransaccionesPorTipo(codigoTurno, tipoTransaccion)
+                .map(transaccionTurnoMapper::toDTO);
+    }
+
+    @GetMapping("/{codigoTransaccion}")
+    @Operation(summary = "Obtener transacción por código", description = "Consulta una transacción específica por su código")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transacción encontrada"),
+            @ApiResponse(responseCode = "404", description = "Transacción no encontrada")
+    })
+    public Mono<TransaccionTurnoDTO> obtenerTransaccion(@PathVariable String codigoTransaccion) {
+        log.info("Solicitud reactiva para obtener transacción: {}", codigoTransaccion);
+
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTransaccion(codigoTransaccion, validacion);
+        validacion.lanzarSiHayErrores();
+
+        return transaccionTurnoReactivaService.obtenerTransaccion(codigoTransaccion)
+                .map(transaccionTurnoMapper::toDTO);
+    }
+}
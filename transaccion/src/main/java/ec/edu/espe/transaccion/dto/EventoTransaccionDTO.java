@@ -0,0 +1,25 @@
+package ec.edu.espe.transaccion.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Evento "transacción registrada" que se publica al microservicio de turnos
+public class EventoTransaccionDTO {
+
+    private String codigoTransaccion;
+    private String codigoCaja;
+    private String codigoCajero;
+    private String codigoTurno;
+    private String tipoTransaccion;
+    private BigDecimal montoTotal;
+    private List<DenominacionDTO> denominaciones;
+    private LocalDateTime fechaTransaccion;
+}
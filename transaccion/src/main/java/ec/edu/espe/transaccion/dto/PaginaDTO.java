@@ -0,0 +1,17 @@
+package ec.edu.espe.transaccion.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> elementos;
+    // id del último elemento; se envía como "despuesDe" para pedir la siguiente página (null si no hay más)
+    private String siguienteCursor;
+}
@@ -0,0 +1,16 @@
+package ec.edu.espe.transaccion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoItemLoteDTO {
+
+    private Integer indice;
+    private boolean exitoso;
+    private String codigoTransaccion;
+    private String error;
+}
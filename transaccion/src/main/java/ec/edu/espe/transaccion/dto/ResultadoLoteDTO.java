@@ -0,0 +1,18 @@
+package ec.edu.espe.transaccion.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+
+    private Integer total;
+    private Integer exitosas;
+    private Integer fallidas;
+    private List<ResultadoItemLoteDTO> resultados;
+}
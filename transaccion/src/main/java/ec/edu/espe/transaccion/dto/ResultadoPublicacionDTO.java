@@ -0,0 +1,14 @@
+package ec.edu.espe.transaccion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoPublicacionDTO {
+
+    private String codigoTurno;
+    private Integer publicados;
+}
@@ -0,0 +1,28 @@
+package ec.edu.espe.transaccion.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoValidacionDTO {
+
+    private String codigoCaja;
+    private String codigoCajero;
+    private String codigoTurno;
+    private boolean cajaValida;
+    private boolean cajeroValido;
+    private boolean cajeroAutorizado;
+    private boolean turnoEncontrado;
+    private boolean turnoAbierto;
+    private List<String> errores = new ArrayList<>();
+
+    public boolean isValido() {
+        return cajaValida && cajeroValido && cajeroAutorizado && turnoAbierto;
+    }
+}
@@ -0,0 +1,243 @@
+package ec.edu.espe.transaccion.escritura;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario local de solicitudes aceptadas, escrito en segmentos de tamaño fijo mapeados en memoria.
+ * Cada registro es [longitud][crc32c][contenido]; un registro con longitud 0 o crc inválido marca el
+ * final de lo escrito en el segmento. El archivo "confirmado" guarda la posición hasta la que los
+ * registros ya están en Mongo, y los segmentos anteriores a ella se eliminan.
+ */
+@Slf4j
+public class DiarioTransacciones implements AutoCloseable {
+
+    private static final String PREFIJO_SEGMENTO = "segmento-";
+    private static final String EXTENSION_SEGMENTO = ".diario";
+    private static final String ARCHIVO_CONFIRMADO = "confirmado";
+    private static final int CABECERA = Integer.BYTES * 2;
+
+    public record Posicion(long segmento, int desplazamiento) {
+    }
+
+    public record Registro(Posicion fin, byte[] contenido) {
+    }
+
+    private final Path directorio;
+    private final int tamanioSegmento;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long segmentoActual;
+    private MappedByteBuffer buffer;
+
+    public DiarioTransacciones(Path directorio, int tamanioSegmento) {
+        this.directorio = directorio;
+        this.tamanioSegmento = tamanioSegmento;
+        try {
+            Files.createDirectories(directorio);
+            List<Long> segmentos = segmentos();
+            segmentoActual = segmentos.isEmpty() ? 0 : segmentos.get(segmentos.size() - 1);
+            buffer = mapear(segmentoActual);
+            buffer.position(finDeRegistros(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario de transacciones en " + directorio, e);
+        }
+    }
+
+    /**
+     * Agrega un registro y devuelve la posición en la que termina. Si forzar es verdadero no retorna
+     * hasta que el segmento está en disco.
+     */
+    public Posicion agregar(byte[] contenido, boolean forzar) {
+        int longitudRegistro = CABECERA + contenido.length;
+        if (longitudRegistro > tamanioSegmento) {
+            throw new IllegalArgumentException("El registro (" + longitudRegistro + " bytes) supera el tamaño del segmento del diario");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(contenido);
+
+        lock.lock();
+        try {
+            if (buffer.remaining() < longitudRegistro) {
+                rotarSegmento();
+            }
+            int inicio = buffer.position();
+            // El contenido y el crc se escriben antes que la longitud para que un registro a medias no parezca completo
+            buffer.putInt(inicio + Integer.BYTES, (int) crc.getValue());
+            buffer.put(inicio + CABECERA, contenido);
+            buffer.putInt(inicio, contenido.length);
+            buffer.position(inicio + longitudRegistro);
+            if (forzar) {
+                buffer.force();
+            }
+            return new Posicion(segmentoActual, buffer.position());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void forzar() {
+        lock.lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Registros escritos después de la última posición confirmada, en orden
+    public List<Registro> pendientes() {
+        Posicion confirmada = leerConfirmada();
+        List<Registro> registros = new ArrayList<>();
+        lock.lock();
+        try {
+            for (long segmento : segmentos()) {
+                if (segmento < confirmada.segmento()) {
+                    continue;
+                }
+                ByteBuffer lectura = segmento == segmentoActual ? buffer.duplicate() : mapear(segmento);
+                int posicion = segmento == confirmada.segmento() ? confirmada.desplazamiento() : 0;
+                while (true) {
+                    byte[] contenido = leerRegistro(lectura, posicion);
+                    if (contenido == null) {
+                        break;
+                    }
+                    posicion += CABECERA + contenido.length;
+                    registros.add(new Registro(new Posicion(segmento, posicion), contenido));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el diario de transacciones en " + directorio, e);
+        } finally {
+            lock.unlock();
+        }
+        return registros;
+    }
+
+    // Marca como persistido todo lo escrito hasta la posición y elimina los segmentos que ya no se necesitan
+    public void confirmar(Posicion posicion) {
+        try {
+            Path temporal = directorio.resolve(ARCHIVO_CONFIRMADO + ".tmp");
+            ByteBuffer datos = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                .putLong(posicion.segmento())
+                .putInt(posicion.desplazamiento())
+                .flip();
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                canal.write(datos);
+                canal.force(true);
+            }
+            Files.move(temporal, directorio.resolve(ARCHIVO_CONFIRMADO),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            for (long segmento : segmentos()) {
+                if (segmento < posicion.segmento()) {
+                    Files.deleteIfExists(rutaSegmento(segmento));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo confirmar la posición del diario de transacciones", e);
+        }
+    }
+
+    public long bytesEnDisco() {
+        return segmentos().size() * (long) tamanioSegmento;
+    }
+
+    @Override
+    public void close() {
+        forzar();
+    }
+
+    private void rotarSegmento() {
+        buffer.force();
+        segmentoActual++;
+        try {
+            buffer = mapear(segmentoActual);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el segmento " + segmentoActual + " del diario de transacciones", e);
+        }
+    }
+
+    private MappedByteBuffer mapear(long segmento) throws IOException {
+        try (FileChannel canal = FileChannel.open(rutaSegmento(segmento),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanioSegmento);
+        }
+    }
+
+    private int finDeRegistros(ByteBuffer segmento) {
+        int posicion = 0;
+        while (true) {
+            byte[] contenido = leerRegistro(segmento, posicion);
+            if (contenido == null) {
+                return posicion;
+            }
+            posicion += CABECERA + contenido.length;
+        }
+    }
+
+    private byte[] leerRegistro(ByteBuffer segmento, int posicion) {
+        if (posicion + CABECERA > tamanioSegmento) {
+            return null;
+        }
+        int longitud = segmento.getInt(posicion);
+        if (longitud <= 0 || posicion + CABECERA + longitud > tamanioSegmento) {
+            return null;
+        }
+        byte[] contenido = new byte[longitud];
+        segmento.get(posicion + CABECERA, contenido);
+        CRC32C crc = new CRC32C();
+        crc.update(contenido);
+        if ((int) crc.getValue() != segmento.getInt(posicion + Integer.BYTES)) {
+            log.warn("Registro incompleto en el diario de transacciones, posición {}; se descarta el resto del segmento", posicion);
+            return null;
+        }
+        return contenido;
+    }
+
+    private Posicion leerConfirmada() {
+        Path archivo = directorio.resolve(ARCHIVO_CONFIRMADO);
+        if (!Files.exists(archivo)) {
+            return new Posicion(0, 0);
+        }
+        try {
+            ByteBuffer datos = ByteBuffer.wrap(Files.readAllBytes(archivo));
+            return new Posicion(datos.getLong(), datos.getInt());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la posición confirmada del diario de transacciones", e);
+        }
+    }
+
+    private List<Long> segmentos() {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                .map(archivo -> archivo.getFileName().toString())
+                .filter(nombre -> nombre.startsWith(PREFIJO_SEGMENTO) && nombre.endsWith(EXTENSION_SEGMENTO))
+                .map(nombre -> Long.parseLong(nombre.substring(PREFIJO_SEGMENTO.length(), nombre.length() - EXTENSION_SEGMENTO.length())))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo listar el diario de transacciones en " + directorio, e);
+        }
+    }
+
+    private Path rutaSegmento(long segmento) {
+        return directorio.resolve(String.format("%s%012d%s", PREFIJO_SEGMENTO, segmento, EXTENSION_SEGMENTO));
+    }
+}
@@ -0,0 +1,434 @@
+package ec.edu.espe.transaccion.escritura;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import ec.edu.espe.transaccion.excepcion.ActualizarTransaccionException;
+import ec.edu.espe.transaccion.excepcion.CrearTransaccionException;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import ec.edu.espe.transaccion.servicio.EscrituraLoteService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Escritura diferida de transacciones: la solicitud se registra en el diario local y se responde al cliente;
+// un hilo escritor las inserta en Mongo por lotes y confirma en el diario lo que ya quedó guardado.
+// Al arrancar se reprocesan los registros no confirmados; los que ya estaban en Mongo se descartan por
+// el índice único de codigoTransaccion.
+// Hasta llegar a Mongo la transacción no está en la bandeja de salida: el cierre del turno espera a que se escriban
+// las de su turno aceptadas en esta instancia (esperarTurno); las de otras instancias en modo diferido que lleguen
+// después del cierre el microservicio de turnos las aparta como tardías.
+// Las que Mongo rechaza por algo distinto de una clave duplicada pasan al diario de rechazadas antes de confirmar
+// el lote; desde ahí se reintentan cada transaccion.escritura.reintento-rechazadas hasta que se guarden.
+@Service
+@Slf4j
+public class EscrituraDiferidaService {
+
+    private record Pendiente(TransaccionTurno transaccion, DiarioTransacciones.Posicion fin, long encoladaNanos) {
+    }
+
+    private final EscrituraLoteService escrituraLoteService;
+    private final ObjectMapper objectMapper;
+    private final ModoEscritura modo;
+    private final NivelDurabilidad durabilidad;
+    private final Path ruta;
+    private final int tamanioSegmento;
+    private final int tamanioLote;
+    private final Duration intervalo;
+    private final Duration esperaReintento;
+    private final Duration reintentoRechazadas;
+
+    private final BlockingQueue<Pendiente> cola;
+    // La lee también el hilo de las métricas
+    private final Deque<Pendiente> recuperados = new ConcurrentLinkedDeque<>();
+    // Rechazadas por Mongo que esperan reintento, en el orden del diario de rechazadas
+    private final Deque<Pendiente> rechazadas = new ConcurrentLinkedDeque<>();
+    // Transacciones aceptadas de cada turno que aún no están en Mongo
+    private final Map<String, Integer> pendientesPorTurno = new ConcurrentHashMap<>();
+    // Garantiza que el orden de la cola sea el mismo que el del diario
+    private final ReentrantLock lockEncolado = new ReentrantLock();
+
+    private final Counter escritas;
+    private final Counter rechazadasContador;
+    private final Counter reintentos;
+    private final Timer duracionLote;
+
+    private DiarioTransacciones diario;
+    private DiarioTransacciones diarioRechazadas;
+    private long ultimoReintentoRechazadas;
+    private Thread escritor;
+    private volatile boolean activo;
+    private volatile Pendiente masAntiguo;
+
+    public EscrituraDiferidaService(
+            EscrituraLoteService escrituraLoteService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${transaccion.escritura.modo:SINCRONO}") ModoEscritura modo,
+            @Value("${transaccion.escritura.durabilidad:PERIODICO}") NivelDurabilidad durabilidad,
+            @Value("${transaccion.escritura.diario.ruta:./diario-transacciones}") Path ruta,
+            @Value("${transaccion.escritura.diario.tamanio-segmento:67108864}") int tamanioSegmento,
+            @Value("${transaccion.escritura.tamanio-lote:500}") int tamanioLote,
+            @Value("${transaccion.escritura.capacidad-cola:100000}") int capacidadCola,
+            @Value("${transaccion.escritura.intervalo:100ms}") Duration intervalo,
+            @Value("${transaccion.escritura.espera-reintento:1s}") Duration esperaReintento,
+            @Value("${transaccion.escritura.reintento-rechazadas:1m}") Duration reintentoRechazadas) {
+        this.escrituraLoteService = escrituraLoteService;
+        this.objectMapper = objectMapper;
+        this.modo = modo;
+        this.durabilidad = durabilidad;
+        this.ruta = ruta;
+        this.tamanioSegmento = tamanioSegmento;
+        this.tamanioLote = tamanioLote;
+        this.intervalo = intervalo;
+        this.esperaReintento = esperaReintento;
+        this.reintentoRechazadas = reintentoRechazadas;
+        this.cola = new LinkedBlockingQueue<>(capacidadCola);
+
+        this.escritas = Counter.builder("transacciones.escritura.escritas")
+                .description("Transacciones diferidas guardadas en Mongo")
+                .register(meterRegistry);
+        this.rechazadasContador = Counter.builder("transacciones.escritura.rechazadas")
+                .description("Transacciones diferidas que Mongo rechazó y pasaron al diario de rechazadas")
+                .register(meterRegistry);
+        this.reintentos = Counter.builder("transacciones.escritura.reintentos")
+                .description("Lotes que no se pudieron escribir y se reintentan")
+                .register(meterRegistry);
+        this.duracionLote = Timer.builder("transacciones.escritura.lote")
+                .description("Tiempo de escritura de cada lote en Mongo")
+                .register(meterRegistry);
+        Gauge.builder("transacciones.escritura.pendientes", this,
+                        servicio -> servicio.cola.size() + servicio.recuperados.size() + servicio.rechazadas.size())
+                .description("Transacciones aceptadas que aún no están en Mongo")
+                .register(meterRegistry);
+        // Mayor que cero requiere atención: son transacciones confirmadas al cliente que Mongo no acepta
+        Gauge.builder("transacciones.escritura.rechazadas.pendientes", rechazadas, Deque::size)
+                .description("Transacciones rechazadas por Mongo que esperan reintento")
+                .register(meterRegistry);
+        TimeGauge.builder("transacciones.escritura.retraso", this, TimeUnit.NANOSECONDS, EscrituraDiferidaService::retrasoNanos)
+                .description("Antigüedad de la transacción pendiente más antigua")
+                .register(meterRegistry);
+        Gauge.builder("transacciones.escritura.diario.bytes", this, servicio -> servicio.diario == null ? 0 : servicio.diario.bytesEnDisco())
+                .description("Espacio ocupado por los segmentos del diario")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (modo == ModoEscritura.SINCRONO && !existeDiario()) {
+            return;
+        }
+        diario = new DiarioTransacciones(ruta, tamanioSegmento);
+        for (DiarioTransacciones.Registro registro : diario.pendientes()) {
+            Pendiente pendiente = new Pendiente(leer(registro.contenido()), registro.fin(), System.nanoTime());
+            recuperados.add(pendiente);
+            sumarPendiente(pendiente.transaccion(), 1);
+        }
+        if (!recuperados.isEmpty()) {
+            log.warn("Se reprocesarán {} transacciones del diario que no llegaron a Mongo", recuperados.size());
+        }
+        diarioRechazadas = new DiarioTransacciones(ruta.resolve("rechazadas"), tamanioSegmento);
+        for (DiarioTransacciones.Registro registro : diarioRechazadas.pendientes()) {
+            Pendiente pendiente = new Pendiente(leer(registro.contenido()), registro.fin(), System.nanoTime());
+            rechazadas.add(pendiente);
+            sumarPendiente(pendiente.transaccion(), 1);
+        }
+        ultimoReintentoRechazadas = System.nanoTime() - reintentoRechazadas.toNanos();
+        if (!rechazadas.isEmpty()) {
+            log.error("Hay {} transacciones rechazadas por Mongo pendientes de reintento", rechazadas.size());
+        }
+        if (modo == ModoEscritura.SINCRONO && recuperados.isEmpty() && rechazadas.isEmpty()) {
+            return;
+        }
+
+        activo = true;
+        escritor = Thread.ofPlatform().name("escritor-transacciones").daemon().start(this::escribir);
+        log.info("Escritura de transacciones en modo {} con durabilidad {}", modo, durabilidad);
+    }
+
+    @PreDestroy
+    void detener() {
+        activo = false;
+        if (escritor != null) {
+            try {
+                escritor.join(Duration.ofSeconds(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (diario != null) {
+            diario.close();
+            diarioRechazadas.close();
+        }
+    }
+
+    public boolean estaActiva() {
+        return modo == ModoEscritura.DIFERIDO;
+    }
+
+    /**
+     * Registra la transacción en el diario para escribirla después en Mongo. Devuelve false si la cola
+     * está llena, en cuyo caso el llamador debe guardarla de forma síncrona.
+     */
+    public boolean encolar(TransaccionTurno transaccion) {
+        byte[] contenido;
+        try {
+            contenido = objectMapper.writeValueAsBytes(transaccion);
+        } catch (JsonProcessingException e) {
+            throw new CrearTransaccionException("TransaccionTurno", "Error al registrar la transacción en el diario: " + e.getMessage());
+        }
+
+        lockEncolado.lock();
+        try {
+            if (cola.remainingCapacity() == 0) {
+                return false;
+            }
+            DiarioTransacciones.Posicion fin = diario.agregar(contenido, false);
+            sumarPendiente(transaccion, 1);
+            cola.add(new Pendiente(transaccion, fin, System.nanoTime()));
+        } finally {
+            lockEncolado.unlock();
+        }
+
+        // Fuera del lock para que varias solicitudes compartan el mismo forzado a disco
+        if (durabilidad == NivelDurabilidad.INMEDIATO) {
+            diario.forzar();
+        }
+        return true;
+    }
+
+    /**
+     * Espera a que las transacciones del turno aceptadas en esta instancia queden en Mongo, y con ello en la
+     * bandeja de salida. Si no terminan dentro del plazo lanza ActualizarTransaccionException.
+     */
+    public void esperarTurno(String codigoTurno, Duration plazo) {
+        long limite = System.nanoTime() + plazo.toNanos();
+        while (pendientesPorTurno.containsKey(codigoTurno)) {
+            if (System.nanoTime() - limite > 0) {
+                throw new ActualizarTransaccionException("TransaccionTurno",
+                    "Las transacciones diferidas del turno " + codigoTurno + " no se escribieron en Mongo en " + plazo);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ActualizarTransaccionException("TransaccionTurno", "Espera interrumpida para el turno " + codigoTurno);
+            }
+        }
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanioLote);
+        while (true) {
+            try {
+                if (lote.isEmpty()) {
+                    llenarLote(lote);
+                }
+                if (durabilidad == NivelDurabilidad.PERIODICO) {
+                    diario.forzar();
+                }
+                reintentarRechazadas();
+                if (lote.isEmpty()) {
+                    masAntiguo = null;
+                    if (!activo || (modo == ModoEscritura.SINCRONO && recuperados.isEmpty() && rechazadas.isEmpty())) {
+                        return;
+                    }
+                    continue;
+                }
+
+                masAntiguo = lote.get(0);
+                if (persistir(lote)) {
+                    lote.clear();
+                } else if (!activo) {
+                    // Al detener la aplicación los pendientes quedan en el diario para el próximo arranque
+                    return;
+                } else {
+                    reintentos.increment();
+                    Thread.sleep(esperaReintento.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el escritor de transacciones: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void llenarLote(List<Pendiente> lote) throws InterruptedException {
+        // Primero lo recuperado del diario, que es anterior a todo lo encolado después del arranque
+        while (!recuperados.isEmpty() && lote.size() < tamanioLote) {
+            lote.add(recuperados.poll());
+        }
+        if (!lote.isEmpty()) {
+            return;
+        }
+        Pendiente primero = cola.poll(intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        if (primero != null) {
+            lote.add(primero);
+            cola.drainTo(lote, tamanioLote - 1);
+        }
+    }
+
+    private boolean persistir(List<Pendiente> lote) {
+        List<TransaccionTurno> transacciones = new ArrayList<>(lote.size());
+        for (Pendiente pendiente : lote) {
+            transacciones.add(pendiente.transaccion());
+        }
+
+        Map<Integer, BulkWriteError> errores;
+        Timer.Sample muestra = Timer.start();
+        try {
+            errores = escrituraLoteService.insertar(transacciones);
+        } catch (Exception e) {
+            log.warn("No se pudo escribir un lote de {} transacciones, se reintentará: {}", lote.size(), e.getMessage());
+            return false;
+        } finally {
+            muestra.stop(duracionLote);
+        }
+
+        int duplicadas = 0;
+        List<Pendiente> rechazadasLote = new ArrayList<>();
+        Set<Integer> posicionesRechazadas = new HashSet<>();
+        for (Map.Entry<Integer, BulkWriteError> error : errores.entrySet()) {
+            if (error.getValue().getCode() == EscrituraLoteService.CLAVE_DUPLICADA) {
+                // Ya se había guardado antes de un reinicio
+                duplicadas++;
+            } else {
+                log.error("Mongo rechazó la transacción {}, pasa al diario de rechazadas: {}",
+                    transacciones.get(error.getKey()).getCodigoTransaccion(), error.getValue().getMessage());
+                rechazadasLote.add(lote.get(error.getKey()));
+                posicionesRechazadas.add(error.getKey());
+            }
+        }
+        if (!rechazadasLote.isEmpty() && !apartarRechazadas(rechazadasLote)) {
+            // Sin el diario de rechazadas el lote no se confirma: se reintenta completo y lo guardado queda duplicado
+            return false;
+        }
+        escritas.increment(transacciones.size() - errores.size());
+        if (duplicadas > 0) {
+            log.info("{} transacciones del lote ya estaban guardadas", duplicadas);
+        }
+
+        diario.confirmar(lote.get(lote.size() - 1).fin());
+        for (int i = 0; i < lote.size(); i++) {
+            if (!posicionesRechazadas.contains(i)) {
+                sumarPendiente(lote.get(i).transaccion(), -1);
+            }
+        }
+        return true;
+    }
+
+    // Las rechazadas siguen contando como pendientes de su turno hasta que se guarden
+    private boolean apartarRechazadas(List<Pendiente> rechazadasLote) {
+        List<Pendiente> apartadas = new ArrayList<>(rechazadasLote.size());
+        try {
+            for (Pendiente pendiente : rechazadasLote) {
+                DiarioTransacciones.Posicion fin = diarioRechazadas.agregar(objectMapper.writeValueAsBytes(pendiente.transaccion()), false);
+                apartadas.add(new Pendiente(pendiente.transaccion(), fin, pendiente.encoladaNanos()));
+            }
+            diarioRechazadas.forzar();
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("No se pudo escribir el diario de rechazadas: {}", e.getMessage(), e);
+            return false;
+        }
+        rechazadas.addAll(apartadas);
+        rechazadasContador.increment(apartadas.size());
+        return true;
+    }
+
+    // Solo confirma en el diario de rechazadas el tramo inicial que ya quedó en Mongo
+    private void reintentarRechazadas() {
+        long ahora = System.nanoTime();
+        if (rechazadas.isEmpty() || ahora - ultimoReintentoRechazadas < reintentoRechazadas.toNanos()) {
+            return;
+        }
+        ultimoReintentoRechazadas = ahora;
+
+        List<Pendiente> lote = new ArrayList<>(rechazadas);
+        List<TransaccionTurno> transacciones = new ArrayList<>(lote.size());
+        for (Pendiente pendiente : lote) {
+            transacciones.add(pendiente.transaccion());
+        }
+        Map<Integer, BulkWriteError> errores;
+        try {
+            errores = escrituraLoteService.insertar(transacciones);
+        } catch (Exception e) {
+            log.warn("No se pudieron reintentar {} transacciones rechazadas: {}", lote.size(), e.getMessage());
+            return;
+        }
+
+        int guardadas = 0;
+        while (guardadas < lote.size()) {
+            BulkWriteError error = errores.get(guardadas);
+            if (error != null && error.getCode() != EscrituraLoteService.CLAVE_DUPLICADA) {
+                break;
+            }
+            guardadas++;
+        }
+        if (guardadas > 0) {
+            diarioRechazadas.confirmar(lote.get(guardadas - 1).fin());
+            for (int i = 0; i < guardadas; i++) {
+                rechazadas.poll();
+                sumarPendiente(lote.get(i).transaccion(), -1);
+            }
+            escritas.increment(guardadas);
+        }
+        if (!rechazadas.isEmpty()) {
+            log.error("{} transacciones rechazadas por Mongo siguen sin guardarse; la primera es {}",
+                rechazadas.size(), rechazadas.peek().transaccion().getCodigoTransaccion());
+        }
+    }
+
+    private void sumarPendiente(TransaccionTurno transaccion, int cantidad) {
+        pendientesPorTurno.compute(transaccion.getCodigoTurno(), (codigo, actual) -> {
+            int total = (actual == null ? 0 : actual) + cantidad;
+            return total > 0 ? total : null;
+        });
+    }
+
+    private TransaccionTurno leer(byte[] contenido) {
+        try {
+            return objectMapper.readValue(contenido, TransaccionTurno.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Registro ilegible en el diario de transacciones: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean existeDiario() {
+        return Files.isDirectory(ruta);
+    }
+
+    private double retrasoNanos() {
+        Pendiente pendiente = masAntiguo;
+        if (pendiente == null) {
+            pendiente = cola.peek();
+        }
+        return pendiente == null ? 0 : System.nanoTime() - pendiente.encoladaNanos();
+    }
+}
@@ -0,0 +1,8 @@
+package ec.edu.espe.transaccion.escritura;
+
+public enum ModoEscritura {
+    // Se responde al cliente cuando Mongo confirma la escritura
+    SINCRONO,
+    // Se responde al quedar la transacción en el diario local; Mongo se actualiza en lotes
+    DIFERIDO
+}
@@ -0,0 +1,10 @@
+package ec.edu.espe.transaccion.escritura;
+
+public enum NivelDurabilidad {
+    // El registro queda en la memoria mapeada: sobrevive a la caída del proceso, no a la del equipo
+    PROCESO,
+    // El escritor fuerza el diario a disco en cada ciclo: se pueden perder los últimos milisegundos
+    PERIODICO,
+    // Cada registro se fuerza a disco antes de responder al cliente
+    INMEDIATO
+}
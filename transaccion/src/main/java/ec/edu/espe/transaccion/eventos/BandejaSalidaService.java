@@ -0,0 +1,178 @@
+package ec.edu.espe.transaccion.eventos;
+
+import ec.edu.espe.transaccion.dto.EventoTransaccionDTO;
+import ec.edu.espe.transaccion.escritura.EscrituraDiferidaService;
+import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapper;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import ec.edu.espe.transaccion.repositorio.TransaccionTurnoRepositorio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bandeja de salida de eventos: cada transacción se guarda con estadoPublicacion=PENDIENTE en el mismo documento,
+// así que registrar la transacción y su evento es una sola escritura atómica. Un hilo de fondo publica las
+// pendientes en orden de _id y les quita la marca solo cuando el consumidor confirmó el lote; si el proceso
+// cae entre ambos pasos el lote se vuelve a entregar (al menos una vez).
+@Service
+@Slf4j
+public class BandejaSalidaService {
+
+    private final TransaccionTurnoRepositorio transaccionTurnoRepositorio;
+    private final TransaccionTurnoMapper transaccionTurnoMapper;
+    private final MongoTemplate mongoTemplate;
+    private final PublicadorEventos publicadorEventos;
+    private final EscrituraDiferidaService escrituraDiferidaService;
+    private final boolean habilitado;
+    private final Duration intervalo;
+    private final Duration esperaReintento;
+    private final int tamanioLote;
+    private final Duration esperaDiario;
+
+    private final Counter publicados;
+    private final Counter fallos;
+    private final Timer duracionLote;
+
+    private Thread publicador;
+    private volatile boolean activo;
+
+    public BandejaSalidaService(
+            TransaccionTurnoRepositorio transaccionTurnoRepositorio,
+            TransaccionTurnoMapper transaccionTurnoMapper,
+            MongoTemplate mongoTemplate,
+            PublicadorEventos publicadorEventos,
+            EscrituraDiferidaService escrituraDiferidaService,
+            MeterRegistry meterRegistry,
+            @Value("${transaccion.eventos.habilitado:true}") boolean habilitado,
+            @Value("${transaccion.eventos.intervalo:200ms}") Duration intervalo,
+            @Value("${transaccion.eventos.espera-reintento:1s}") Duration esperaReintento,
+            @Value("${transaccion.eventos.tamanio-lote:500}") int tamanioLote,
+            @Value("${transaccion.eventos.espera-diario:10s}") Duration esperaDiario) {
+        this.transaccionTurnoRepositorio = transaccionTurnoRepositorio;
+        this.transaccionTurnoMapper = transaccionTurnoMapper;
+        this.mongoTemplate = mongoTemplate;
+        this.publicadorEventos = publicadorEventos;
+        this.escrituraDiferidaService = escrituraDiferidaService;
+        this.habilitado = habilitado;
+        this.intervalo = intervalo;
+        this.esperaReintento = esperaReintento;
+        this.tamanioLote = tamanioLote;
+        this.esperaDiario = esperaDiario;
+
+        this.publicados = Counter.builder("transacciones.eventos.publicados")
+                .description("Eventos de transacciones confirmados por el microservicio de turnos")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("transacciones.eventos.fallos")
+                .description("Lotes de eventos que no se pudieron publicar y se reintentan")
+                .register(meterRegistry);
+        this.duracionLote = Timer.builder("transacciones.eventos.lote")
+                .description("Tiempo de publicación de cada lote de eventos")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) {
+            log.warn("Publicación de eventos de transacciones deshabilitada; el saldo de los turnos no se actualizará");
+            return;
+        }
+        activo = true;
+        publicador = Thread.ofPlatform().name("publicador-eventos").daemon().start(this::publicar);
+    }
+
+    @PreDestroy
+    void detener() {
+        activo = false;
+        if (publicador != null) {
+            publicador.interrupt();
+            try {
+                publicador.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Publica un lote de la bandeja de salida y lo marca como publicado. Devuelve la cantidad de eventos
+     * publicados (0 si no había pendientes); si la publicación falla la excepción se propaga y el lote
+     * queda pendiente.
+     */
+    public int publicarPendientes() {
+        return publicarLote(transaccionTurnoRepositorio.findByEstadoPublicacionOrderByIdAsc(
+                TransaccionTurno.PUBLICACION_PENDIENTE, Limit.of(tamanioLote)));
+    }
+
+    /**
+     * Publica en el momento todos los eventos pendientes de un turno, sin esperar al hilo de fondo. Lo usa el
+     * cierre del turno para que el saldo proyectado incluya cada transacción guardada; si falla la excepción
+     * se propaga y el cierre no debe continuar. Antes espera a que las transacciones del turno que siguen en el
+     * diario de escritura diferida de esta instancia lleguen a Mongo.
+     */
+    public int publicarPendientesDelTurno(String codigoTurno) {
+        escrituraDiferidaService.esperarTurno(codigoTurno, esperaDiario);
+        int total = 0;
+        int publicadosLote;
+        do {
+            publicadosLote = publicarLote(transaccionTurnoRepositorio.findByEstadoPublicacionAndCodigoTurnoOrderByIdAsc(
+                    TransaccionTurno.PUBLICACION_PENDIENTE, codigoTurno, Limit.of(tamanioLote)));
+            total += publicadosLote;
+        } while (publicadosLote == tamanioLote);
+        return total;
+    }
+
+    private int publicarLote(List<TransaccionTurno> pendientes) {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+
+        List<EventoTransaccionDTO> eventos = new ArrayList<>(pendientes.size());
+        List<String> ids = new ArrayList<>(pendientes.size());
+        for (TransaccionTurno transaccion : pendientes) {
+            eventos.add(transaccionTurnoMapper.toEvento(transaccion));
+            ids.add(transaccion.getId());
+        }
+
+        duracionLote.record(() -> publicadorEventos.publicar(eventos));
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                new Update().unset("estadoPublicacion"), TransaccionTurno.class);
+        publicados.increment(eventos.size());
+        return eventos.size();
+    }
+
+    private void publicar() {
+        while (activo) {
+            try {
+                // Un lote completo indica que hay más pendientes: se sigue sin esperar
+                if (publicarPendientes() < tamanioLote) {
+                    Thread.sleep(intervalo.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                fallos.increment();
+                log.warn("No se pudo publicar un lote de eventos de transacciones, se reintentará: {}", e.getMessage());
+                try {
+                    Thread.sleep(esperaReintento.toMillis());
+                } catch (InterruptedException interrumpido) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ec.edu.espe.transaccion.eventos;
+
+import ec.edu.espe.transaccion.dto.EventoTransaccionDTO;
+
+import java.util.List;
+
+// Canal por el que salen los eventos de la bandeja de salida. Una implementación debe lanzar una excepción
+// si no puede confirmar la entrega del lote completo; el consumidor descarta las entregas repetidas.
+public interface PublicadorEventos {
+
+    void publicar(List<EventoTransaccionDTO> eventos);
+}
@@ -0,0 +1,29 @@
+package ec.edu.espe.transaccion.eventos;
+
+import ec.edu.espe.transaccion.dto.EventoTransaccionDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+// Entrega los eventos al microservicio de turnos por el mismo pool HTTP que usan las validaciones
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PublicadorEventosHttp implements PublicadorEventos {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${turno.service.url:http://localhost:8083}")
+    private String turnoServiceUrl;
+
+    @Override
+    public void publicar(List<EventoTransaccionDTO> eventos) {
+        log.debug("Publicando {} eventos de transacciones", eventos.size());
+        // Un error HTTP o de comunicación se propaga como RestClientException y el lote se reintenta
+        restTemplate.postForEntity(turnoServiceUrl + "/api/eventos/transacciones", eventos, Void.class);
+    }
+}
@@ -0,0 +1,18 @@
+package ec.edu.espe.transaccion.excepcion;
+
+public class ClaveIdempotenciaException extends RuntimeException{
+
+    private final Integer errorCode;
+    private final String entityName;
+
+    public ClaveIdempotenciaException(String entityName, String message) {
+        super(message);
+        this.errorCode = 6;
+        this.entityName = entityName;
+    }
+
+    @Override
+    public String getMessage() {
+        return "errorCode=" + errorCode + ", entityName=" + entityName + ", message=" + super.getMessage();
+    }
+}
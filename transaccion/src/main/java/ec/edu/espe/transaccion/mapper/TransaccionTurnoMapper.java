@@ -1,5 +1,6 @@
 package ec.edu.espe.transaccion.mapper;
 
+import ec.edu.espe.transaccion.dto.EventoTransaccionDTO;
 import ec.edu.espe.transaccion.dto.TransaccionTurnoDTO;
 import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
 import ec.edu.espe.transaccion.modelo.TransaccionTurno;
@@ -11,4 +12,6 @@ public interface TransaccionTurnoMapper {
     TransaccionTurnoDTO toDTO(TransaccionTurno transaccionTurno);
     
     TransaccionTurno toEntity(TransaccionTurnoCreacionDTO dto);
+
+    EventoTransaccionDTO toEvento(TransaccionTurno transaccionTurno);
 } 
\ No newline at end of file
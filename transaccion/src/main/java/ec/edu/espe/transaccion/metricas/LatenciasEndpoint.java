@@ -0,0 +1,74 @@
+package ec.edu.espe.transaccion.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Resumen legible de las latencias por operación y etapa en /actuator/latencias (?operacion= para filtrar).
+// Los percentiles son los del propio proceso desde el arranque; para series históricas usar /actuator/prometheus.
+@Component
+@Endpoint(id = "latencias")
+public class LatenciasEndpoint {
+
+    public record Latencia(String operacion, String etapa, String tipo, String resultado, long cantidad,
+                           double promedioMs, double maximoMs, Double p50Ms, Double p95Ms, Double p99Ms) {
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public LatenciasEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public List<Latencia> latencias(@Nullable String operacion) {
+        List<Latencia> latencias = new ArrayList<>();
+        agregar(latencias, MedidorEtapas.METRICA_OPERACION, operacion);
+        agregar(latencias, MedidorEtapas.METRICA_ETAPA, operacion);
+        latencias.sort(Comparator.comparing(Latencia::operacion)
+                .thenComparing(latencia -> latencia.etapa() == null ? "" : latencia.etapa())
+                .thenComparing(Latencia::tipo)
+                .thenComparing(Latencia::resultado));
+        return latencias;
+    }
+
+    private void agregar(List<Latencia> latencias, String metrica, String operacion) {
+        for (Timer timer : meterRegistry.find(metrica).timers()) {
+            String operacionTimer = timer.getId().getTag("operacion");
+            if (operacion != null && !operacion.equals(operacionTimer)) {
+                continue;
+            }
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            latencias.add(new Latencia(
+                    operacionTimer,
+                    timer.getId().getTag("etapa"),
+                    timer.getId().getTag("tipo"),
+                    timer.getId().getTag("resultado"),
+                    snapshot.count(),
+                    snapshot.mean(TimeUnit.MILLISECONDS),
+                    snapshot.max(TimeUnit.MILLISECONDS),
+                    percentil(snapshot, 0.5),
+                    percentil(snapshot, 0.95),
+                    percentil(snapshot, 0.99)));
+        }
+    }
+
+    private static Double percentil(HistogramSnapshot snapshot, double percentil) {
+        for (ValueAtPercentile valor : snapshot.percentileValues()) {
+            if (valor.percentile() == percentil) {
+                return valor.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package ec.edu.espe.transaccion.metricas;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Tiempos de las operaciones principales y de cada una de sus etapas. Las etapas se registran en
+// transacciones.etapa y la operación completa en transacciones.operacion, con las etiquetas operacion,
+// etapa (solo en las etapas), tipo y resultado. Ambos publican p50/p95/p99 y el histograma que Prometheus
+// usa para calcular percentiles entre instancias.
+@Component
+public class MedidorEtapas {
+
+    public static final String METRICA_ETAPA = "transacciones.etapa";
+    public static final String METRICA_OPERACION = "transacciones.operacion";
+
+    public static final String EXITO = "exito";
+    public static final String ERROR = "error";
+    // Las etiquetas no admiten null y deben ser las mismas en todas las series de una métrica
+    private static final String SIN_TIPO = "NINGUNO";
+
+    private final Meter.MeterProvider<Timer> etapas;
+    private final Meter.MeterProvider<Timer> operaciones;
+
+    public MedidorEtapas(MeterRegistry meterRegistry) {
+        this.etapas = Timer.builder(METRICA_ETAPA)
+                .description("Duración de cada etapa de una operación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.operaciones = Timer.builder(METRICA_OPERACION)
+                .description("Duración total de una operación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    public <T> T medirOperacion(String operacion, String tipo, Supplier<T> accion) {
+        long inicio = System.nanoTime();
+        String resultado = ERROR;
+        try {
+            T valor = accion.get();
+            resultado = EXITO;
+            return valor;
+        } finally {
+            operaciones.withTags("operacion", operacion, "tipo", tipo(tipo), "resultado", resultado)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <T> T medir(String operacion, String etapa, String tipo, Supplier<T> accion) {
+        long inicio = System.nanoTime();
+        String resultado = ERROR;
+        try {
+            T valor = accion.get();
+            resultado = EXITO;
+            return valor;
+        } finally {
+            etapas.withTags("operacion", operacion, "etapa", etapa, "tipo", tipo(tipo), "resultado", resultado)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void medir(String operacion, String etapa, String tipo, Runnable accion) {
+        medir(operacion, etapa, tipo, () -> {
+            accion.run();
+            return null;
+        });
+    }
+
+    private static String tipo(String tipo) {
+        return tipo == null || tipo.isBlank() ? SIN_TIPO : tipo.toUpperCase();
+    }
+}
@@ -0,0 +1,38 @@
+package ec.edu.espe.transaccion.modelo;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import ec.edu.espe.transaccion.dto.TransaccionTurnoDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "claves_idempotencia")
+// Clave Idempotency-Key enviada por el cliente; el _id (caja|cajero|clave) garantiza que solo una solicitud la
+// reclame. Mongo elimina el documento al vencer el TTL, pero la transacción guardada conserva la clave.
+public class ClaveIdempotencia {
+
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADA = "COMPLETADA";
+
+    @Id
+    private String clave;
+
+    // SHA-256 del cuerpo de la solicitud: la misma clave con otro contenido se rechaza
+    private String huella;
+
+    private String estado;
+
+    // Respuesta original que se devuelve en los reintentos
+    private TransaccionTurnoDTO resultado;
+
+    @Indexed(name = "ttl_creacion", expireAfter = "24h")
+    private LocalDateTime fechaCreacion;
+}
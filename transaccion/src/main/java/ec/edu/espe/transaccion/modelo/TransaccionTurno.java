@@ -5,6 +5,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -16,8 +18,29 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "transacciones_turno")
+@CompoundIndexes({
+    // findByCodigoTurno y findByCodigoTurnoAndTipoTransaccion (también la agregación de totales del turno)
+    @CompoundIndex(name = "turno_tipo", def = "{'codigoTurno': 1, 'tipoTransaccion': 1}"),
+    // Paginación y streaming por turno ordenados por _id
+    @CompoundIndex(name = "turno_id", def = "{'codigoTurno': 1, '_id': 1}"),
+    // findByCodigoTurnoAndFechaTransaccionBetween
+    @CompoundIndex(name = "turno_fecha", def = "{'codigoTurno': 1, 'fechaTransaccion': 1}"),
+    // findByCodigoCajaAndCodigoCajero
+    @CompoundIndex(name = "caja_cajero_fecha", def = "{'codigoCaja': 1, 'codigoCajero': 1, 'fechaTransaccion': 1}"),
+    // findByTipoTransaccion
+    @CompoundIndex(name = "tipo_fecha", def = "{'tipoTransaccion': 1, 'fechaTransaccion': 1}"),
+    // Bandeja de salida de eventos: solo indexa las transacciones que aún no se publicaron
+    @CompoundIndex(name = "publicacion_pendiente", def = "{'estadoPublicacion': 1, '_id': 1}",
+        partialFilter = "{'estadoPublicacion': {'$exists': true}}"),
+    // Idempotency-Key de la solicitud, única por caja y cajero: un reintento nunca guarda una segunda transacción
+    @CompoundIndex(name = "caja_cajero_clave", def = "{'codigoCaja': 1, 'codigoCajero': 1, 'claveIdempotencia': 1}",
+        unique = true, partialFilter = "{'claveIdempotencia': {'$exists': true}}")
+})
 public class TransaccionTurno {
 
+    // Marca de la bandeja de salida; se elimina al publicar el evento al microservicio de turnos
+    public static final String PUBLICACION_PENDIENTE = "PENDIENTE";
+
     @Id
     private String id;
     
@@ -30,6 +53,15 @@ public class TransaccionTurno {
     private String tipoTransaccion; // INICIO, AHORRO, DEPOSITO, CIERRE
     private BigDecimal montoTotal;
     private List<Denominacion> denominaciones;
+
+    // findByFechaTransaccionBetween
+    @Indexed
     private LocalDateTime fechaTransaccion;
+
     private Long version;
+
+    private String estadoPublicacion;
+
+    // Solo en las transacciones recibidas con Idempotency-Key
+    private String claveIdempotencia;
 } 
\ No newline at end of file
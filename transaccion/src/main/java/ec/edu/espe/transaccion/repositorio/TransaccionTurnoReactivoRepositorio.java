@@ -0,0 +1,18 @@
+package ec.edu.espe.transaccion.repositorio;
+
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Mismas consultas que TransaccionTurnoRepositorio para la ruta reactiva (/api/reactivo/transacciones)
+@Repository
+public interface TransaccionTurnoReactivoRepositorio extends ReactiveMongoRepository<TransaccionTurno, String> {
+
+    Mono<TransaccionTurno> findByCodigoTransaccion(String codigoTransaccion);
+
+    Flux<TransaccionTurno> findByCodigoTurnoOrderByIdAsc(String codigoTurno);
+
+    Flux<TransaccionTurno> findByCodigoTurnoAndTipoTransaccion(String codigoTurno, String tipoTransaccion);
+}
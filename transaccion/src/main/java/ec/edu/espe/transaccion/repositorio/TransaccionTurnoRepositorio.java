@@ -1,17 +1,21 @@
 package ec.edu.espe.transaccion.repositorio;
 
 import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransaccionTurnoRepositorio extends MongoRepository<TransaccionTurno, String> {
 
     Optional<TransaccionTurno> findByCodigoTransaccion(String codigoTransaccion);
+
+    Optional<TransaccionTurno> findByCodigoCajaAndCodigoCajeroAndClaveIdempotencia(String codigoCaja, String codigoCajero, String claveIdempotencia);
     
     List<TransaccionTurno> findByCodigoTurno(String codigoTurno);
     
@@ -24,4 +28,17 @@ public interface TransaccionTurnoRepositorio extends MongoRepository<Transaccion
     List<TransaccionTurno> findByFechaTransaccionBetween(LocalDateTime fechaInicio, LocalDateTime fechaFin);
     
     List<TransaccionTurno> findByCodigoTurnoAndFechaTransaccionBetween(String codigoTurno, LocalDateTime fechaInicio, LocalDateTime fechaFin);
+
+    // Paginación por cursor (keyset) sobre el _id
+    List<TransaccionTurno> findByCodigoTurnoOrderByIdAsc(String codigoTurno, Limit limit);
+
+    List<TransaccionTurno> findByCodigoTurnoAndIdGreaterThanOrderByIdAsc(String codigoTurno, String id, Limit limit);
+
+    // Bandeja de salida de eventos, en orden de inserción
+    List<TransaccionTurno> findByEstadoPublicacionOrderByIdAsc(String estadoPublicacion, Limit limit);
+
+    List<TransaccionTurno> findByEstadoPublicacionAndCodigoTurnoOrderByIdAsc(String estadoPublicacion, String codigoTurno, Limit limit);
+
+    // Respaldado por un cursor de Mongo; quien lo consume debe cerrarlo
+    Stream<TransaccionTurno> streamByCodigoTurnoOrderByIdAsc(String codigoTurno);
 } 
\ No newline at end of file
@@ -0,0 +1,138 @@
+package ec.edu.espe.transaccion.servicio;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Sigue el change stream de turnos_caja (colección del microservicio de turnos en la misma base) para que cada
+// instancia saque de TurnoAbiertoCache los turnos que dejan de estar abiertos, sin depender de que le llegue la
+// invalidación por HTTP del cierre. Al perder la conexión la caché se vacía y deja de usarse hasta volver a abrir
+// el change stream. Requiere Mongo en réplica (docker-compose lo inicia así).
+@Component
+@Slf4j
+public class CambiosTurnoListener {
+
+    private static final String COLECCION_TURNOS = "turnos_caja";
+    private static final String ABIERTO = "ABIERTO";
+
+    // Código de Mongo cuando el servidor no es una réplica
+    private static final int CHANGE_STREAM_NO_SOPORTADO = 40573;
+
+    private final MongoTemplate mongoTemplate;
+    private final TurnoAbiertoCache turnoAbiertoCache;
+    private final boolean habilitado;
+    private final Duration esperaReintento;
+
+    private Thread hilo;
+    private volatile boolean activo;
+
+    public CambiosTurnoListener(
+            MongoTemplate mongoTemplate,
+            TurnoAbiertoCache turnoAbiertoCache,
+            @Value("${turno.cache.cambios.habilitado:true}") boolean habilitado,
+            @Value("${turno.cache.cambios.espera-reintento:5s}") Duration esperaReintento) {
+        this.mongoTemplate = mongoTemplate;
+        this.turnoAbiertoCache = turnoAbiertoCache;
+        this.habilitado = habilitado;
+        this.esperaReintento = esperaReintento;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) {
+            log.info("Change stream de turnos deshabilitado: solo la invalidación por HTTP saca turnos de la caché");
+            return;
+        }
+        activo = true;
+        hilo = Thread.ofPlatform().name("cambios-turnos").daemon().start(this::escuchar);
+    }
+
+    @PreDestroy
+    void detener() {
+        activo = false;
+        if (hilo != null) {
+            try {
+                hilo.join(Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void escuchar() {
+        while (activo) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = abrir()) {
+                turnoAbiertoCache.marcarSincronizada(true);
+                while (activo) {
+                    ChangeStreamDocument<Document> cambio = cursor.tryNext();
+                    if (cambio != null) {
+                        aplicar(cambio);
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_NO_SOPORTADO) {
+                    log.warn("Mongo no corre como réplica y no admite change streams; la caché de turnos abiertos no se usará");
+                    turnoAbiertoCache.marcarSincronizada(false);
+                    return;
+                }
+                desconectado(e);
+            } catch (RuntimeException e) {
+                desconectado(e);
+            }
+        }
+        turnoAbiertoCache.marcarSincronizada(false);
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrir() {
+        return mongoTemplate.getCollection(COLECCION_TURNOS)
+                // Solo interesan los cambios de estado; los demás no sacan un turno de la caché
+                .watch(List.of(Aggregates.match(Filters.or(
+                        Filters.in("operationType", "replace", "delete"),
+                        Filters.and(Filters.eq("operationType", "update"),
+                                Filters.exists("updateDescription.updatedFields.estado"))))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .cursor();
+    }
+
+    private void aplicar(ChangeStreamDocument<Document> cambio) {
+        Document turno = cambio.getFullDocument();
+        if (cambio.getOperationType() == OperationType.DELETE || turno == null) {
+            // El evento solo trae el _id, no el codigoTurno
+            turnoAbiertoCache.invalidarTodo();
+            return;
+        }
+        if (!ABIERTO.equals(turno.getString("estado"))) {
+            turnoAbiertoCache.invalidar(turno.getString("codigoTurno"));
+        }
+    }
+
+    private void desconectado(RuntimeException e) {
+        turnoAbiertoCache.marcarSincronizada(false);
+        if (!activo) {
+            return;
+        }
+        log.warn("Se perdió el change stream de turnos_caja, se reintentará en {}: {}", esperaReintento, e.getMessage());
+        try {
+            Thread.sleep(esperaReintento.toMillis());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            activo = false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ec.edu.espe.transaccion.servicio;
+
+import com.mongodb.bulk.BulkWriteError;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class EscrituraLoteService {
+
+    // Código de Mongo para clave duplicada
+    public static final int CLAVE_DUPLICADA = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Inserta las transacciones con una escritura masiva no ordenada. Devuelve los errores por posición
+     * en la lista; si falla la comunicación con Mongo la excepción se propaga.
+     */
+    public Map<Integer, BulkWriteError> insertar(List<TransaccionTurno> transacciones) {
+        Map<Integer, BulkWriteError> errores = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TransaccionTurno.class)
+                .insert(transacciones)
+                .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                errores.put(error.getIndex(), error);
+            }
+        }
+        return errores;
+    }
+}
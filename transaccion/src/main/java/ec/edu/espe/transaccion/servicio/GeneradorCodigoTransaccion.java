@@ -0,0 +1,122 @@
+package ec.edu.espe.transaccion.servicio;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+// Códigos de transacción TXN + 13 caracteres base32 (Crockford) de un entero de 64 bits:
+// 42 bits de milisegundos desde 2025-01-01 | 10 bits de nodo | 12 bits de secuencia.
+// El texto tiene ancho fijo, así que su orden es el numérico: los códigos de un nodo son crecientes y las
+// inserciones en el índice único de codigoTransaccion van al final en lugar de caer en páginas al azar.
+// El nodo se configura explícitamente por instancia (transaccion.codigo.nodo) y nunca se entrega un milisegundo
+// posterior al reloj: al agotar la secuencia o si el reloj retrocede se espera, así un reinicio no repite códigos.
+// La espera duerme el hilo (no gira): tras un retroceso puede durar hasta RETROCESO_MAXIMO en cada hilo que pida un
+// código, por eso no debe llamarse desde un hilo de E/S de Netty.
+@Component
+public class GeneradorCodigoTransaccion {
+
+    public static final String PREFIJO = "TXN";
+    public static final int LONGITUD = PREFIJO.length() + 13;
+    public static final int NODO_MAXIMO = (1 << 10) - 1;
+
+    static final long EPOCA = 1735689600000L;
+
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    // Retroceso del reloj que se espera antes de rechazar la generación
+    private static final long RETROCESO_MAXIMO = 1_000;
+
+    private final long nodo;
+    private final LongSupplier reloj;
+    private final LongConsumer espera;
+    // Milisegundos desde EPOCA << BITS_SECUENCIA | secuencia del último código entregado
+    private final AtomicLong ultimo = new AtomicLong();
+
+    @Autowired
+    public GeneradorCodigoTransaccion(@Value("${transaccion.codigo.nodo:}") String nodo) {
+        this(nodoConfigurado(nodo), System::currentTimeMillis);
+    }
+
+    GeneradorCodigoTransaccion(int nodo, LongSupplier reloj) {
+        this(nodo, reloj, GeneradorCodigoTransaccion::dormir);
+    }
+
+    GeneradorCodigoTransaccion(int nodo, LongSupplier reloj, LongConsumer espera) {
+        if (nodo < 0 || nodo > NODO_MAXIMO) {
+            throw new IllegalArgumentException("El nodo del generador de códigos debe estar entre 0 y " + NODO_MAXIMO + ": " + nodo);
+        }
+        this.nodo = nodo;
+        this.reloj = reloj;
+        this.espera = espera;
+    }
+
+    public String generar() {
+        while (true) {
+            long anterior = ultimo.get();
+            long milisegundoAnterior = anterior >>> BITS_SECUENCIA;
+            long ahora = reloj.getAsLong() - EPOCA;
+            long siguiente;
+            if (ahora > milisegundoAnterior) {
+                siguiente = ahora << BITS_SECUENCIA;
+            } else if (ahora == milisegundoAnterior && (anterior & MASCARA_SECUENCIA) < MASCARA_SECUENCIA) {
+                siguiente = anterior + 1;
+            } else {
+                // Secuencia agotada o reloj atrasado: se espera al milisegundo siguiente en lugar de adelantarse
+                // al reloj, porque tras un reinicio se volverían a entregar esos milisegundos
+                if (milisegundoAnterior - ahora > RETROCESO_MAXIMO) {
+                    throw new IllegalStateException("El reloj retrocedió " + (milisegundoAnterior - ahora)
+                        + " ms; no se generan códigos de transacción hasta que se recupere");
+                }
+                espera.accept(milisegundoAnterior - ahora + 1);
+                continue;
+            }
+            if (ultimo.compareAndSet(anterior, siguiente)) {
+                long milisegundos = siguiente >>> BITS_SECUENCIA;
+                long secuencia = siguiente & MASCARA_SECUENCIA;
+                return codificar((milisegundos << (BITS_NODO + BITS_SECUENCIA)) | (nodo << BITS_SECUENCIA) | secuencia);
+            }
+        }
+    }
+
+    public int getNodo() {
+        return (int) nodo;
+    }
+
+    private static void dormir(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se esperaba al reloj para generar un código", e);
+        }
+    }
+
+    private static String codificar(long valor) {
+        char[] codigo = new char[LONGITUD];
+        PREFIJO.getChars(0, PREFIJO.length(), codigo, 0);
+        for (int i = LONGITUD - 1; i >= PREFIJO.length(); i--) {
+            codigo[i] = ALFABETO[(int) (valor & 31)];
+            valor >>>= 5;
+        }
+        return new String(codigo);
+    }
+
+    // Derivar el nodo del host puede repetirlo entre instancias (y con él los códigos), por eso es obligatorio
+    private static int nodoConfigurado(String nodo) {
+        if (nodo == null || nodo.isBlank()) {
+            throw new IllegalStateException("Falta transaccion.codigo.nodo (TRANSACCION_NODO): cada instancia debe "
+                + "tener un nodo distinto entre 0 y " + NODO_MAXIMO);
+        }
+        try {
+            return Integer.parseInt(nodo.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("transaccion.codigo.nodo no es un número: " + nodo, e);
+        }
+    }
+}
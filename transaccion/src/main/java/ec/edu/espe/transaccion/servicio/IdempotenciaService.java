@@ -0,0 +1,198 @@
+package ec.edu.espe.transaccion.servicio;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.dto.TransaccionTurnoDTO;
+import ec.edu.espe.transaccion.excepcion.ClaveIdempotenciaException;
+import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapper;
+import ec.edu.espe.transaccion.modelo.ClaveIdempotencia;
+import ec.edu.espe.transaccion.repositorio.TransaccionTurnoRepositorio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Procesa cada Idempotency-Key una sola vez por caja y cajero. La primera solicitud reclama la clave insertando su
+// documento (el _id único resuelve las carreras entre instancias) y al terminar guarda la respuesta; los reintentos
+// la reciben de la caché en memoria o de Mongo sin volver a validar ni escribir la transacción. La clave también
+// se guarda en la transacción con un índice único: si una solicitud cae después de guardarla y antes de marcar la
+// clave COMPLETADA, el reintento que retoma la clave abandonada responde con esa transacción en lugar de crear otra.
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    private record Resultado(String huella, TransaccionTurnoDTO transaccion) {
+    }
+
+    private enum Reclamo { NUEVA, RETOMADA, OCUPADA }
+
+    private final MongoTemplate mongoTemplate;
+    private final TransaccionTurnoRepositorio transaccionTurnoRepositorio;
+    private final TransaccionTurnoMapper transaccionTurnoMapper;
+    private final ObjectMapper objectMapper;
+    private final Duration esperaEnProceso;
+    private final Cache<String, Resultado> recientes;
+
+    private final Counter nuevas;
+    private final Counter repetidasMemoria;
+    private final Counter repetidasMongo;
+    private final Counter enProceso;
+    private final Counter conflictos;
+
+    public IdempotenciaService(
+            MongoTemplate mongoTemplate,
+            TransaccionTurnoRepositorio transaccionTurnoRepositorio,
+            TransaccionTurnoMapper transaccionTurnoMapper,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${transaccion.idempotencia.cache.tamanio-maximo:100000}") long tamanioMaximo,
+            @Value("${transaccion.idempotencia.cache.ttl:1h}") Duration ttl,
+            @Value("${transaccion.idempotencia.espera-en-proceso:30s}") Duration esperaEnProceso) {
+        this.mongoTemplate = mongoTemplate;
+        this.transaccionTurnoRepositorio = transaccionTurnoRepositorio;
+        this.transaccionTurnoMapper = transaccionTurnoMapper;
+        this.objectMapper = objectMapper;
+        this.esperaEnProceso = esperaEnProceso;
+        this.recientes = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recientes, "transacciones.idempotencia");
+
+        this.nuevas = contador(meterRegistry, "nueva");
+        this.repetidasMemoria = contador(meterRegistry, "repetida_memoria");
+        this.repetidasMongo = contador(meterRegistry, "repetida_mongo");
+        this.enProceso = contador(meterRegistry, "en_proceso");
+        this.conflictos = contador(meterRegistry, "conflicto");
+    }
+
+    /**
+     * Ejecuta el proceso una sola vez por clave, caja y cajero. El proceso debe guardar la transacción con la
+     * clave recibida (TransaccionTurno.claveIdempotencia).
+     */
+    public TransaccionTurnoDTO ejecutar(String claveCliente, TransaccionTurnoCreacionDTO solicitud, Supplier<TransaccionTurnoDTO> proceso) {
+        // Dos cajas pueden generar la misma clave sin que se trate del mismo reintento
+        String clave = solicitud.getCodigoCaja() + "|" + solicitud.getCodigoCajero() + "|" + claveCliente;
+        String huella = huella(solicitud);
+
+        Resultado reciente = recientes.getIfPresent(clave);
+        if (reciente != null) {
+            verificarHuella(clave, huella, reciente.huella());
+            repetidasMemoria.increment();
+            log.info("Reintento con clave de idempotencia {} respondido desde memoria", clave);
+            return reciente.transaccion();
+        }
+
+        Reclamo reclamo = reclamar(clave, huella);
+        if (reclamo == Reclamo.OCUPADA) {
+            return resultadoAnterior(clave, huella);
+        }
+
+        TransaccionTurnoDTO transaccion;
+        try {
+            // Si la clave se retomó de una solicitud abandonada, esa solicitud pudo guardar la transacción
+            Optional<TransaccionTurnoDTO> guardada = reclamo == Reclamo.NUEVA ? Optional.empty() : transaccionTurnoRepositorio
+                    .findByCodigoCajaAndCodigoCajeroAndClaveIdempotencia(solicitud.getCodigoCaja(), solicitud.getCodigoCajero(), claveCliente)
+                    .map(transaccionTurnoMapper::toDTO);
+            if (guardada.isPresent()) {
+                repetidasMongo.increment();
+                log.warn("La clave de idempotencia {} quedó en proceso con la transacción {} ya guardada; se completa con ella",
+                    clave, guardada.get().getCodigoTransaccion());
+                transaccion = guardada.get();
+            } else {
+                nuevas.increment();
+                transaccion = proceso.get();
+            }
+        } catch (RuntimeException e) {
+            // Sin resultado que recordar: se libera la clave para que el cliente pueda reintentar
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(clave).and("estado").is(ClaveIdempotencia.EN_PROCESO)),
+                    ClaveIdempotencia.class);
+            throw e;
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(clave)),
+                new Update().set("estado", ClaveIdempotencia.COMPLETADA).set("resultado", transaccion),
+                ClaveIdempotencia.class);
+        recientes.put(clave, new Resultado(huella, transaccion));
+        return transaccion;
+    }
+
+    // Inserta la clave; si ya existe solo la toma cuando quedó en proceso por una solicitud que no terminó
+    private Reclamo reclamar(String clave, String huella) {
+        try {
+            mongoTemplate.insert(new ClaveIdempotencia(clave, huella, ClaveIdempotencia.EN_PROCESO, null, LocalDateTime.now()));
+            return Reclamo.NUEVA;
+        } catch (DuplicateKeyException e) {
+            Query abandonada = Query.query(Criteria.where("_id").is(clave)
+                    .and("huella").is(huella)
+                    .and("estado").is(ClaveIdempotencia.EN_PROCESO)
+                    .and("fechaCreacion").lt(LocalDateTime.now().minus(esperaEnProceso)));
+            // Solo un reintento la retoma; el índice de la transacción cubre el caso en que la otra solicitud siga viva
+            return mongoTemplate.updateFirst(abandonada, new Update().set("fechaCreacion", LocalDateTime.now()),
+                    ClaveIdempotencia.class).getModifiedCount() > 0 ? Reclamo.RETOMADA : Reclamo.OCUPADA;
+        }
+    }
+
+    private TransaccionTurnoDTO resultadoAnterior(String clave, String huella) {
+        ClaveIdempotencia existente = mongoTemplate.findById(clave, ClaveIdempotencia.class);
+        if (existente == null) {
+            // Venció o se liberó entre la inserción y la lectura
+            enProceso.increment();
+            throw new ClaveIdempotenciaException("TransaccionTurno", "La solicitud con clave " + clave + " cambió de estado, reintente");
+        }
+        verificarHuella(clave, huella, existente.getHuella());
+        if (!ClaveIdempotencia.COMPLETADA.equals(existente.getEstado())) {
+            enProceso.increment();
+            throw new ClaveIdempotenciaException("TransaccionTurno", "La solicitud con clave " + clave + " todavía está en proceso");
+        }
+
+        repetidasMongo.increment();
+        recientes.put(clave, new Resultado(existente.getHuella(), existente.getResultado()));
+        log.info("Reintento con clave de idempotencia {} respondido con la transacción {}", clave,
+            existente.getResultado().getCodigoTransaccion());
+        return existente.getResultado();
+    }
+
+    private void verificarHuella(String clave, String huella, String huellaOriginal) {
+        if (!huella.equals(huellaOriginal)) {
+            conflictos.increment();
+            throw new ClaveIdempotenciaException("TransaccionTurno",
+                "La clave de idempotencia " + clave + " ya se usó con una solicitud diferente");
+        }
+    }
+
+    private String huella(TransaccionTurnoCreacionDTO solicitud) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(objectMapper.writeValueAsBytes(solicitud)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud: " + e.getMessage(), e);
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("transacciones.idempotencia.solicitudes")
+                .description("Solicitudes con clave de idempotencia según cómo se resolvieron")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package ec.edu.espe.transaccion.servicio;
+
+import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.excepcion.CrearTransaccionException;
+import ec.edu.espe.transaccion.excepcion.TransaccionNoEncontradaException;
+import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapper;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import ec.edu.espe.transaccion.repositorio.TransaccionTurnoReactivoRepositorio;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+// Ruta de procesamiento sin bloqueos: validación por WebClient, escritura y consultas con el driver reactivo.
+// No pasa por TransaccionTurnoService: sin idempotencia, sin escritura diferida (siempre inserta en línea) y sin
+// las métricas por etapa de transacciones.procesar. La transacción sí entra a la bandeja de salida
+@Service
+@ConditionalOnProperty(name = "transaccion.reactivo.habilitado", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TransaccionTurnoReactivaService {
+
+    private final TransaccionTurnoReactivoRepositorio transaccionTurnoReactivoRepositorio;
+    private final TransaccionTurnoMapper transaccionTurnoMapper;
+    private final ValidacionTurnoReactivaService validacionTurnoReactivaService;
+    private final GeneradorCodigoTransaccion generadorCodigoTransaccion;
+
+    public Mono<TransaccionTurno> procesarTransaccion(TransaccionTurnoCreacionDTO dto) {
+        log.info("Procesando transacción reactiva tipo: {} para turno: {}", dto.getTipoTransaccion(), dto.getCodigoTurno());
+
+        return validacionTurnoReactivaService.validarTransaccion(dto.getCodigoCaja(), dto.getCodigoCajero(), dto.getCodigoTurno())
+                .then(Mono.fromSupplier(() -> {
+                    TransaccionTurno transaccion = transaccionTurnoMapper.toEntity(dto);
+                    transaccion.setCodigoTransaccion(generadorCodigoTransaccion.generar());
+                    transaccion.setFechaTransaccion(LocalDateTime.now());
+                    transaccion.setVersion(1L);
+                    transaccion.setEstadoPublicacion(TransaccionTurno.PUBLICACION_PENDIENTE);
+                    return transaccion;
+                    // El generador puede dormir esperando al reloj: fuera de los hilos de E/S de Netty
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(transaccion -> transaccionTurnoReactivoRepositorio.save(transaccion)
+                        .onErrorMap(e -> new CrearTransaccionException("TransaccionTurno", "Error al procesar transacción: " + e.getMessage())))
+                .doOnNext(guardada -> log.info("Transacción procesada exitosamente: {}", guardada.getCodigoTransaccion()));
+    }
+
+    public Mono<TransaccionTurno> obtenerTransaccion(String codigoTransaccion) {
+        return transaccionTurnoReactivoRepositorio.findByCodigoTransaccion(codigoTransaccion)
+                .switchIfEmpty(Mono.error(() -> new TransaccionNoEncontradaException(
+                        "Transacción no encontrada: " + codigoTransaccion, 2, "TransaccionTurno")));
+    }
+
+    public Flux<TransaccionTurno> listarTransaccionesPorTurno(String codigoTurno) {
+        return transaccionTurnoReactivoRepositorio.findByCodigoTurnoOrderByIdAsc(codigoTurno);
+    }
+
+    public Flux<TransaccionTurno> listarTransaccionesPorTipo(String codigoTurno, String tipoTransaccion) {
+        return transaccionTurnoReactivoRepositorio.findByCodigoTurnoAndTipoTransaccion(codigoTurno, tipoTransaccion);
+    }
+}
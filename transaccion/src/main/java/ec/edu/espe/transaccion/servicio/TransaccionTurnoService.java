@@ -1,18 +1,27 @@
 package ec.edu.espe.transaccion.servicio;
 
+import ec.edu.espe.transaccion.dto.ResultadoItemLoteDTO;
 import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.escritura.EscrituraDiferidaService;
 import ec.edu.espe.transaccion.excepcion.CrearTransaccionException;
 import ec.edu.espe.transaccion.excepcion.TransaccionNoEncontradaException;
 import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapper;
+import ec.edu.espe.transaccion.metricas.MedidorEtapas;
 import ec.edu.espe.transaccion.modelo.TransaccionTurno;
 import ec.edu.espe.transaccion.repositorio.TransaccionTurnoRepositorio;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,33 +31,163 @@ public class TransaccionTurnoService {
     private final TransaccionTurnoRepositorio transaccionTurnoRepositorio;
     private final TransaccionTurnoMapper transaccionTurnoMapper;
     private final ValidacionTurnoService validacionTurnoService;
+    private final EscrituraLoteService escrituraLoteService;
+    private final EscrituraDiferidaService escrituraDiferidaService;
+    private final ValidacionParalelaService validacionParalelaService;
+    private final TurnoAbiertoCache turnoAbiertoCache;
+    private final MedidorEtapas medidorEtapas;
+    private final GeneradorCodigoTransaccion generadorCodigoTransaccion;
     
-    private String generarCodigoTransaccion() {
-        return "TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
+    private static final String OPERACION_PROCESAR = "procesarTransaccion";
+    
+    @Value("${transaccion.validacion.modo:COMPUESTA}")
+    private String modoValidacion;
     
     public TransaccionTurno procesarTransaccion(TransaccionTurnoCreacionDTO dto) {
-        log.info("Procesando transacción tipo: {} para turno: {}", dto.getTipoTransaccion(), dto.getCodigoTurno());
+        return procesarTransaccion(dto, null);
+    }
+    
+    // La clave de idempotencia queda en la transacción; su índice único (por caja y cajero) impide guardarla dos veces
+    public TransaccionTurno procesarTransaccion(TransaccionTurnoCreacionDTO dto, String claveIdempotencia) {
+        return medidorEtapas.medirOperacion(OPERACION_PROCESAR, dto.getTipoTransaccion(), () -> procesar(dto, claveIdempotencia));
+    }
+    
+    // Cada etapa queda en transacciones.etapa{operacion=procesarTransaccion}
+    private TransaccionTurno procesar(TransaccionTurnoCreacionDTO dto, String claveIdempotencia) {
+        String tipo = dto.getTipoTransaccion();
+        log.info("Procesando transacción tipo: {} para turno: {}", tipo, dto.getCodigoTurno());
         
         // Validaciones con el microservicio de turnos
-        validacionTurnoService.validarCaja(dto.getCodigoCaja());
-        validacionTurnoService.validarCajero(dto.getCodigoCajero());
-        validacionTurnoService.validarCajeroEnCaja(dto.getCodigoCaja(), dto.getCodigoCajero());
-        validacionTurnoService.validarTurnoAbierto(dto.getCodigoTurno());
+        medidorEtapas.medir(OPERACION_PROCESAR, "validacion", tipo, () -> validarConServicioTurnos(dto));
+        
+        TransaccionTurno transaccion = medidorEtapas.medir(OPERACION_PROCESAR, "mapeo", tipo, () -> {
+            TransaccionTurno nueva = transaccionTurnoMapper.toEntity(dto);
+            nueva.setCodigoTransaccion(generadorCodigoTransaccion.generar());
+            nueva.setFechaTransaccion(LocalDateTime.now());
+            nueva.setVersion(1L);
+            nueva.setEstadoPublicacion(TransaccionTurno.PUBLICACION_PENDIENTE);
+            nueva.setClaveIdempotencia(claveIdempotencia);
+            return nueva;
+        });
         
-        TransaccionTurno transaccion = transaccionTurnoMapper.toEntity(dto);
-        transaccion.setCodigoTransaccion(generarCodigoTransaccion());
-        transaccion.setFechaTransaccion(LocalDateTime.now());
-        transaccion.setVersion(1L);
+        // En modo diferido se responde al quedar en el diario; si la cola está llena se guarda de inmediato.
+        // Con clave de idempotencia también: el índice único debe resolver un reintento antes de responder
+        if (escrituraDiferidaService.estaActiva() && claveIdempotencia == null
+                && medidorEtapas.medir(OPERACION_PROCESAR, "diario", tipo, () -> escrituraDiferidaService.encolar(transaccion))) {
+            medidorEtapas.medir(OPERACION_PROCESAR, "log", tipo,
+                () -> log.info("Transacción aceptada para escritura diferida: {}", transaccion.getCodigoTransaccion()));
+            return transaccion;
+        }
         
+        // El saldo del turno lo actualiza el microservicio de turnos al recibir el evento de la bandeja de salida
+        TransaccionTurno transaccionGuardada;
         try {
-            TransaccionTurno transaccionGuardada = transaccionTurnoRepositorio.save(transaccion);
-            log.info("Transacción procesada exitosamente: {}", transaccionGuardada.getCodigoTransaccion());
-            return transaccionGuardada;
+            transaccionGuardada = medidorEtapas.medir(OPERACION_PROCESAR, "guardado", tipo,
+                () -> transaccionTurnoRepositorio.save(transaccion));
+        } catch (DuplicateKeyException e) {
+            if (claveIdempotencia == null) {
+                log.error("Error al procesar transacción: {}", e.getMessage());
+                throw new CrearTransaccionException("TransaccionTurno", "Error al procesar transacción: " + e.getMessage());
+            }
+            // Un intento anterior con la misma clave ya la guardó: se responde con esa transacción
+            TransaccionTurno anterior = transaccionTurnoRepositorio.findByCodigoCajaAndCodigoCajeroAndClaveIdempotencia(
+                    dto.getCodigoCaja(), dto.getCodigoCajero(), claveIdempotencia)
+                .orElseThrow(() -> new CrearTransaccionException("TransaccionTurno", "Error al procesar transacción: " + e.getMessage()));
+            log.info("La clave de idempotencia {} ya tenía la transacción {}", claveIdempotencia, anterior.getCodigoTransaccion());
+            return anterior;
         } catch (Exception e) {
             log.error("Error al procesar transacción: {}", e.getMessage());
             throw new CrearTransaccionException("TransaccionTurno", "Error al procesar transacción: " + e.getMessage());
         }
+        medidorEtapas.medir(OPERACION_PROCESAR, "log", tipo,
+            () -> log.info("Transacción procesada exitosamente: {}", transaccionGuardada.getCodigoTransaccion()));
+        return transaccionGuardada;
+    }
+    
+    // Procesa un lote de solicitudes ya validadas en formato, indexadas por su posición en la petición original
+    public List<ResultadoItemLoteDTO> procesarLote(Map<Integer, TransaccionTurnoCreacionDTO> solicitudes) {
+        log.info("Procesando lote de {} transacciones", solicitudes.size());
+        
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>();
+        
+        // 1. Validar una sola vez cada combinación caja/cajero/turno
+        Map<String, String> erroresValidacion = new HashMap<>();
+        for (TransaccionTurnoCreacionDTO dto : solicitudes.values()) {
+            String clave = claveValidacion(dto);
+            if (!erroresValidacion.containsKey(clave)) {
+                try {
+                    validarConServicioTurnos(dto);
+                    erroresValidacion.put(clave, null);
+                } catch (RuntimeException e) {
+                    erroresValidacion.put(clave, e.getMessage());
+                }
+            }
+        }
+        
+        // 2. Construir las transacciones de los ítems válidos
+        List<Integer> indices = new ArrayList<>();
+        List<TransaccionTurno> transacciones = new ArrayList<>();
+        LocalDateTime fechaTransaccion = LocalDateTime.now();
+        solicitudes.forEach((indice, dto) -> {
+            String error = erroresValidacion.get(claveValidacion(dto));
+            if (error != null) {
+                resultados.add(new ResultadoItemLoteDTO(indice, false, null, error));
+                return;
+            }
+            TransaccionTurno transaccion = transaccionTurnoMapper.toEntity(dto);
+            transaccion.setCodigoTransaccion(generadorCodigoTransaccion.generar());
+            transaccion.setFechaTransaccion(fechaTransaccion);
+            transaccion.setVersion(1L);
+            transaccion.setEstadoPublicacion(TransaccionTurno.PUBLICACION_PENDIENTE);
+            indices.add(indice);
+            transacciones.add(transaccion);
+        });
+        
+        if (transacciones.isEmpty()) {
+            return resultados;
+        }
+        
+        // 3. Insertar con una escritura masiva no ordenada; los errores se reportan por posición
+        Map<Integer, String> erroresEscritura = new HashMap<>();
+        try {
+            escrituraLoteService.insertar(transacciones)
+                .forEach((posicion, error) -> erroresEscritura.put(posicion, error.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al insertar lote de transacciones: {}", e.getMessage());
+            for (int i = 0; i < transacciones.size(); i++) {
+                erroresEscritura.put(i, "Error al procesar transacción: " + e.getMessage());
+            }
+        }
+        
+        // 4. Resultado por ítem
+        for (int i = 0; i < transacciones.size(); i++) {
+            String error = erroresEscritura.get(i);
+            if (error != null) {
+                resultados.add(new ResultadoItemLoteDTO(indices.get(i), false, null, error));
+            } else {
+                resultados.add(new ResultadoItemLoteDTO(indices.get(i), true, transacciones.get(i).getCodigoTransaccion(), null));
+            }
+        }
+        
+        log.info("Lote procesado: {} transacciones guardadas de {}", transacciones.size() - erroresEscritura.size(), solicitudes.size());
+        return resultados;
+    }
+    
+    // COMPUESTA: una sola llamada que valida todo; PARALELA: las cuatro validaciones individuales a la vez
+    private void validarConServicioTurnos(TransaccionTurnoCreacionDTO dto) {
+        if ("PARALELA".equalsIgnoreCase(modoValidacion)) {
+            // Consulta la caché por su cuenta antes de lanzar las validaciones
+            validacionParalelaService.validar(dto.getCodigoCaja(), dto.getCodigoCajero(), dto.getCodigoTurno());
+        } else if (turnoAbiertoCache.obtener(dto.getCodigoCaja(), dto.getCodigoCajero(), dto.getCodigoTurno()).isPresent()) {
+            // Fuera del circuit breaker y del bulkhead, que solo protegen la llamada remota
+            log.debug("Transacción validada desde caché: turno={}", dto.getCodigoTurno());
+        } else {
+            validacionTurnoService.validarTransaccion(dto.getCodigoCaja(), dto.getCodigoCajero(), dto.getCodigoTurno());
+        }
+    }
+    
+    private String claveValidacion(TransaccionTurnoCreacionDTO dto) {
+        return dto.getCodigoCaja() + "|" + dto.getCodigoCajero() + "|" + dto.getCodigoTurno();
     }
     
     public TransaccionTurno obtenerTransaccion(String codigoTransaccion) {
@@ -62,6 +201,19 @@ public class TransaccionTurnoService {
         return transaccionTurnoRepositorio.findByCodigoTurno(codigoTurno);
     }
     
+    public List<TransaccionTurno> listarTransaccionesPorTurno(String codigoTurno, String despuesDe, int tamanio) {
+        log.info("Listando página de transacciones para turno: {}, después de: {}", codigoTurno, despuesDe);
+        if (despuesDe == null) {
+            return transaccionTurnoRepositorio.findByCodigoTurnoOrderByIdAsc(codigoTurno, Limit.of(tamanio));
+        }
+        return transaccionTurnoRepositorio.findByCodigoTurnoAndIdGreaterThanOrderByIdAsc(codigoTurno, despuesDe, Limit.of(tamanio));
+    }
+    
+    public Stream<TransaccionTurno> streamTransaccionesPorTurno(String codigoTurno) {
+        log.info("Transmitiendo transacciones para turno: {}", codigoTurno);
+        return transaccionTurnoRepositorio.streamByCodigoTurnoOrderByIdAsc(codigoTurno);
+    }
+    
     public List<TransaccionTurno> listarTransaccionesPorTipo(String codigoTurno, String tipoTransaccion) {
         log.info("Listando transacciones tipo: {} para turno: {}", tipoTransaccion, codigoTurno);
         return transaccionTurnoRepositorio.findByCodigoTurnoAndTipoTransaccion(codigoTurno, tipoTransaccion);
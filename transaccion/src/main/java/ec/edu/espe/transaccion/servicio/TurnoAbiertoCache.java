@@ -0,0 +1,118 @@
+package ec.edu.espe.transaccion.servicio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ec.edu.espe.transaccion.dto.ResultadoValidacionDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Guarda las validaciones exitosas de turnos abiertos para no consultar al microservicio de turnos
+// en cada transacción. El cierre de un turno lo invalida en todas las instancias por el change stream de turnos_caja
+// (CambiosTurnoListener); mientras el change stream no esté conectado la caché no se consulta, porque la
+// invalidación por HTTP del cierre solo llega a una instancia. El TTL acota el resto de los casos.
+// El respaldo conserva la última validación por más tiempo y solo se consulta cuando el servicio de turnos no responde.
+@Component
+@Slf4j
+public class TurnoAbiertoCache {
+
+    private final Cache<String, ResultadoValidacionDTO> cache;
+    private final Cache<String, ResultadoValidacionDTO> respaldo;
+    private final boolean requiereCambios;
+    private volatile boolean sincronizada;
+
+    public TurnoAbiertoCache(
+            MeterRegistry meterRegistry,
+            @Value("${turno.cache.tamanio-maximo:10000}") long tamanioMaximo,
+            @Value("${turno.cache.ttl:5m}") Duration ttl,
+            @Value("${turno.cache.respaldo-ttl:30m}") Duration respaldoTtl,
+            @Value("${turno.cache.cambios.habilitado:true}") boolean requiereCambios) {
+        this.requiereCambios = requiereCambios;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.respaldo = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(respaldoTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "turnos.abiertos");
+        CaffeineCacheMetrics.monitor(meterRegistry, respaldo, "turnos.abiertos.respaldo");
+        Gauge.builder("turnos.abiertos.sincronizada", this, turnos -> turnos.disponible() ? 1 : 0)
+                .description("1 si la caché de turnos abiertos está en uso (change stream conectado o no requerido)")
+                .register(meterRegistry);
+    }
+
+    public Optional<ResultadoValidacionDTO> obtener(String codigoCaja, String codigoCajero, String codigoTurno) {
+        if (!disponible()) {
+            return Optional.empty();
+        }
+        return buscar(cache, codigoCaja, codigoCajero, codigoTurno);
+    }
+
+    public Optional<ResultadoValidacionDTO> obtenerRespaldo(String codigoCaja, String codigoCajero, String codigoTurno) {
+        return buscar(respaldo, codigoCaja, codigoCajero, codigoTurno);
+    }
+
+    public boolean estaAbierto(String codigoTurno) {
+        return disponible() && cache.getIfPresent(codigoTurno) != null;
+    }
+
+    public boolean tieneRespaldo(String codigoTurno) {
+        return respaldo.getIfPresent(codigoTurno) != null;
+    }
+
+    public void registrar(ResultadoValidacionDTO resultado) {
+        if (resultado.isValido()) {
+            if (disponible()) {
+                cache.put(resultado.getCodigoTurno(), resultado);
+            }
+            respaldo.put(resultado.getCodigoTurno(), resultado);
+        }
+    }
+
+    public void invalidar(String codigoTurno) {
+        log.info("Invalidando turno en caché: {}", codigoTurno);
+        cache.invalidate(codigoTurno);
+        respaldo.invalidate(codigoTurno);
+    }
+
+    public void invalidarTodo() {
+        cache.invalidateAll();
+        respaldo.invalidateAll();
+    }
+
+    public void marcarSincronizada(boolean conectada) {
+        if (!conectada) {
+            // Los cierres que ocurran sin change stream no llegarían: se descarta lo guardado
+            cache.invalidateAll();
+        }
+        if (sincronizada != conectada) {
+            log.info("Caché de turnos abiertos {}", conectada ? "sincronizada con el change stream" : "sin change stream, validaciones directas al servicio de turnos");
+        }
+        sincronizada = conectada;
+    }
+
+    boolean disponible() {
+        return !requiereCambios || sincronizada;
+    }
+
+    private Optional<ResultadoValidacionDTO> buscar(Cache<String, ResultadoValidacionDTO> origen,
+                                                    String codigoCaja, String codigoCajero, String codigoTurno) {
+        ResultadoValidacionDTO resultado = origen.getIfPresent(codigoTurno);
+        if (resultado == null
+                || !resultado.getCodigoCaja().equals(codigoCaja)
+                || !resultado.getCodigoCajero().equals(codigoCajero)) {
+            return Optional.empty();
+        }
+        return Optional.of(resultado);
+    }
+}
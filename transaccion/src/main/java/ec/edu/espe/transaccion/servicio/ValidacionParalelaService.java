@@ -0,0 +1,150 @@
+package ec.edu.espe.transaccion.servicio;
+
+import ec.edu.espe.transaccion.dto.ResultadoValidacionDTO;
+import ec.edu.espe.transaccion.excepcion.TurnoServicioNoDisponibleException;
+import ec.edu.espe.transaccion.metricas.MedidorEtapas;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Lanza a la vez las cuatro validaciones individuales contra el servicio de turnos, de modo que la latencia
+// sea la de la más lenta y no la suma. La primera que falla cancela las demás; si al fallar ya había otras
+// con error se agregan como suprimidas a la excepción que se propaga.
+@Service
+@Slf4j
+public class ValidacionParalelaService {
+
+    private final ValidacionTurnoService validacionTurnoService;
+    private final TurnoAbiertoCache turnoAbiertoCache;
+    private final MedidorEtapas medidorEtapas;
+    private final ExecutorService executor;
+
+    private static final String OPERACION = "validacionParalela";
+
+    public ValidacionParalelaService(
+            ValidacionTurnoService validacionTurnoService,
+            TurnoAbiertoCache turnoAbiertoCache,
+            MedidorEtapas medidorEtapas,
+            @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales,
+            @Value("${transaccion.validacion.paralela.hilos:64}") int hilos,
+            @Value("${transaccion.validacion.paralela.capacidad-cola:1000}") int capacidadCola) {
+        this.validacionTurnoService = validacionTurnoService;
+        this.turnoAbiertoCache = turnoAbiertoCache;
+        this.medidorEtapas = medidorEtapas;
+        ExecutorService hilosValidacion;
+        if (hilosVirtuales) {
+            // La concurrencia real hacia el servicio de turnos la acotan los bulkheads de cada validación
+            hilosValidacion = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("validacion-", 0).factory());
+        } else {
+            // Si el pool y la cola se llenan, la validación corre en el hilo de la solicitud
+            hilosValidacion = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(capacidadCola),
+                    Thread.ofPlatform().name("validacion-", 0).daemon().factory(),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        // Cada tarea hereda la traza de la solicitud que la lanzó (también los traceId del log)
+        ContextSnapshotFactory contexto = ContextSnapshotFactory.builder().build();
+        this.executor = ContextExecutorService.wrap(hilosValidacion, contexto::captureAll);
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdownNow();
+    }
+
+    public void validar(String codigoCaja, String codigoCajero, String codigoTurno) {
+        if (turnoAbiertoCache.obtener(codigoCaja, codigoCajero, codigoTurno).isPresent()) {
+            log.debug("Transacción validada desde caché: turno={}", codigoTurno);
+            return;
+        }
+
+        CompletionService<Void> validaciones = new ExecutorCompletionService<>(executor);
+        List<Future<Void>> futuros = new ArrayList<>(4);
+        // Cada llamada remota queda en transacciones.etapa{operacion=validacionParalela}
+        futuros.add(validaciones.submit(() -> medidorEtapas.medir(OPERACION, "caja", null,
+                () -> validacionTurnoService.validarCaja(codigoCaja)), null));
+        futuros.add(validaciones.submit(() -> medidorEtapas.medir(OPERACION, "cajero", null,
+                () -> validacionTurnoService.validarCajero(codigoCajero)), null));
+        futuros.add(validaciones.submit(() -> medidorEtapas.medir(OPERACION, "cajeroEnCaja", null,
+                () -> validacionTurnoService.validarCajeroEnCaja(codigoCaja, codigoCajero)), null));
+        // El turno pudo validarse antes con otra caja o cajero: entonces solo falta la parte de caja y cajero
+        if (!turnoAbiertoCache.estaAbierto(codigoTurno)) {
+            futuros.add(validaciones.submit(() -> medidorEtapas.medir(OPERACION, "turnoAbierto", null,
+                    () -> validacionTurnoService.validarTurnoAbierto(codigoTurno)), null));
+        }
+
+        try {
+            for (int i = 0; i < futuros.size(); i++) {
+                esperar(validaciones.take());
+            }
+        } catch (RuntimeException primera) {
+            for (Future<Void> futuro : futuros) {
+                futuro.cancel(true);
+            }
+            agregarErroresTerminados(primera, futuros);
+            throw primera;
+        } catch (InterruptedException e) {
+            futuros.forEach(futuro -> futuro.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new TurnoServicioNoDisponibleException("TransaccionTurno", "Validación interrumpida: " + codigoTurno);
+        }
+
+        turnoAbiertoCache.registrar(resultadoValido(codigoCaja, codigoCajero, codigoTurno));
+        log.info("Transacción válida (validación paralela): caja={}, cajero={}, turno={}", codigoCaja, codigoCajero, codigoTurno);
+    }
+
+    private void esperar(Future<Void> futuro) throws InterruptedException {
+        try {
+            futuro.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void agregarErroresTerminados(RuntimeException primera, List<Future<Void>> futuros) {
+        for (Future<Void> futuro : futuros) {
+            if (futuro.state() == Future.State.FAILED && futuro.exceptionNow() != primera) {
+                primera.addSuppressed(futuro.exceptionNow());
+            }
+        }
+        if (primera.getSuppressed().length > 0) {
+            List<String> errores = new ArrayList<>();
+            errores.add(primera.getMessage());
+            for (Throwable otra : primera.getSuppressed()) {
+                errores.add(otra.getMessage());
+            }
+            log.warn("Validación rechazada: {}", String.join("; ", errores));
+        }
+    }
+
+    private ResultadoValidacionDTO resultadoValido(String codigoCaja, String codigoCajero, String codigoTurno) {
+        ResultadoValidacionDTO resultado = new ResultadoValidacionDTO();
+        resultado.setCodigoCaja(codigoCaja);
+        resultado.setCodigoCajero(codigoCajero);
+        resultado.setCodigoTurno(codigoTurno);
+        resultado.setCajaValida(true);
+        resultado.setCajeroValido(true);
+        resultado.setCajeroAutorizado(true);
+        resultado.setTurnoEncontrado(true);
+        resultado.setTurnoAbierto(true);
+        return resultado;
+    }
+}
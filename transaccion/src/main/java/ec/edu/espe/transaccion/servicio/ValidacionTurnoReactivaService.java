@@ -0,0 +1,96 @@
+package ec.edu.espe.transaccion.servicio;
+
+import ec.edu.espe.transaccion.dto.ResultadoValidacionDTO;
+import ec.edu.espe.transaccion.excepcion.TurnoNoAbiertoException;
+import ec.edu.espe.transaccion.excepcion.TurnoServicioNoDisponibleException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+// Versión no bloqueante de ValidacionTurnoService.validarTransaccion. Comparte con la ruta bloqueante la caché
+// de turnos abiertos y las instancias "validacionTransaccion" de circuit breaker y bulkhead.
+@Service
+@ConditionalOnProperty(name = "transaccion.reactivo.habilitado", havingValue = "true")
+@Slf4j
+public class ValidacionTurnoReactivaService {
+
+    private final WebClient turnoWebClient;
+    private final TurnoAbiertoCache turnoAbiertoCache;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public ValidacionTurnoReactivaService(
+            @Qualifier("turnoWebClient") WebClient turnoWebClient,
+            TurnoAbiertoCache turnoAbiertoCache,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry) {
+        this.turnoWebClient = turnoWebClient;
+        this.turnoAbiertoCache = turnoAbiertoCache;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("validacionTransaccion");
+        this.bulkhead = bulkheadRegistry.bulkhead("validacionTransaccion");
+    }
+
+    public Mono<ResultadoValidacionDTO> validarTransaccion(String codigoCaja, String codigoCajero, String codigoTurno) {
+        ResultadoValidacionDTO enCache = turnoAbiertoCache.obtener(codigoCaja, codigoCajero, codigoTurno).orElse(null);
+        if (enCache != null) {
+            log.debug("Transacción validada desde caché: turno={}", codigoTurno);
+            return Mono.just(enCache);
+        }
+
+        return turnoWebClient.get()
+                .uri(uri -> uri.path("/api/validaciones/transaccion")
+                        .queryParam("codigoCaja", codigoCaja)
+                        .queryParam("codigoCajero", codigoCajero)
+                        .queryParam("codigoTurno", codigoTurno)
+                        .build())
+                .retrieve()
+                .bodyToMono(ResultadoValidacionDTO.class)
+                .onErrorMap(e -> e instanceof WebClientRequestException || e instanceof WebClientResponseException,
+                        e -> new TurnoServicioNoDisponibleException("TransaccionTurno", "Error al validar transacción: " + e.getMessage()))
+                .switchIfEmpty(Mono.error(() -> new TurnoNoAbiertoException("TransaccionTurno", "Respuesta vacía al validar turno: " + codigoTurno)))
+                .map(resultado -> verificar(resultado, codigoTurno))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(this::esFalloDeComunicacion, e -> respaldo(codigoCaja, codigoCajero, codigoTurno, e))
+                .doOnNext(resultado -> log.info("Transacción válida: caja={}, cajero={}, turno={}", codigoCaja, codigoCajero, codigoTurno));
+    }
+
+    private ResultadoValidacionDTO verificar(ResultadoValidacionDTO resultado, String codigoTurno) {
+        if (!resultado.isCajaValida() || !resultado.isCajeroValido() || !resultado.isCajeroAutorizado()) {
+            throw new IllegalArgumentException("Error al validar transacción: " + String.join("; ", resultado.getErrores()));
+        }
+        if (!resultado.isTurnoAbierto()) {
+            throw new TurnoNoAbiertoException("TransaccionTurno", String.join("; ", resultado.getErrores()));
+        }
+        turnoAbiertoCache.registrar(resultado);
+        return resultado;
+    }
+
+    private boolean esFalloDeComunicacion(Throwable e) {
+        return e instanceof TurnoServicioNoDisponibleException
+                || e instanceof CallNotPermittedException
+                || e instanceof BulkheadFullException;
+    }
+
+    private Mono<ResultadoValidacionDTO> respaldo(String codigoCaja, String codigoCajero, String codigoTurno, Throwable e) {
+        return Mono.justOrEmpty(turnoAbiertoCache.obtenerRespaldo(codigoCaja, codigoCajero, codigoTurno))
+                .doOnNext(resultado -> log.warn("Servicio de turnos no disponible, se usa la última validación del turno {}: {}",
+                        codigoTurno, e.getMessage()))
+                .switchIfEmpty(Mono.error(() -> e instanceof TurnoServicioNoDisponibleException
+                        ? e
+                        : new TurnoServicioNoDisponibleException("TransaccionTurno", "Servicio de turnos no disponible: " + e.getMessage())));
+    }
+}
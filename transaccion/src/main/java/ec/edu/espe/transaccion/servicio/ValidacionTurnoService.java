@@ -1,94 +1,223 @@
 package ec.edu.espe.transaccion.servicio;
 
+import ec.edu.espe.transaccion.dto.ResultadoValidacionDTO;
 import ec.edu.espe.transaccion.excepcion.TurnoNoAbiertoException;
+import ec.edu.espe.transaccion.excepcion.TurnoServicioNoDisponibleException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+// Cada tipo de validación tiene su propio circuit breaker y bulkhead (ver resilience4j.* en application.properties).
+// Solo los fallos de comunicación (TurnoServicioNoDisponibleException) abren el circuito; los rechazos de negocio no.
+// La caché de turnos abiertos la consulta quien llama antes de entrar aquí, así un acierto no ocupa el bulkhead
+// ni cuenta como llamada exitosa del circuit breaker.
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ValidacionTurnoService {
 
     private final RestTemplate restTemplate;
+    private final TurnoAbiertoCache turnoAbiertoCache;
     
     @Value("${turno.service.url:http://localhost:8083}")
     private String turnoServiceUrl;
 
+    @CircuitBreaker(name = "validacionTransaccion", fallbackMethod = "validarTransaccionRespaldo")
+    @Bulkhead(name = "validacionTransaccion", fallbackMethod = "validarTransaccionRespaldo")
+    public ResultadoValidacionDTO validarTransaccion(String codigoCaja, String codigoCajero, String codigoTurno) {
+        log.info("Validando transacción: caja={}, cajero={}, turno={}", codigoCaja, codigoCajero, codigoTurno);
+
+        ResultadoValidacionDTO resultado;
+        try {
+            String url = turnoServiceUrl + "/api/validaciones/transaccion?codigoCaja={codigoCaja}&codigoCajero={codigoCajero}&codigoTurno={codigoTurno}";
+            ResponseEntity<ResultadoValidacionDTO> response = restTemplate.getForEntity(
+                    url, ResultadoValidacionDTO.class, codigoCaja, codigoCajero, codigoTurno);
+            resultado = response.getBody();
+        } catch (RestClientException e) {
+            log.error("Error al validar transacción: {}", e.getMessage());
+            throw new TurnoServicioNoDisponibleException("TransaccionTurno", "Error al validar transacción: " + e.getMessage());
+        }
+
+        if (resultado == null) {
+            throw new TurnoNoAbiertoException("TransaccionTurno", "Respuesta vacía al validar turno: " + codigoTurno);
+        }
+        if (!resultado.isCajaValida() || !resultado.isCajeroValido() || !resultado.isCajeroAutorizado()) {
+            throw new IllegalArgumentException("Error al validar transacción: " + String.join("; ", resultado.getErrores()));
+        }
+        if (!resultado.isTurnoAbierto()) {
+            throw new TurnoNoAbiertoException("TransaccionTurno", String.join("; ", resultado.getErrores()));
+        }
+
+        turnoAbiertoCache.registrar(resultado);
+        log.info("Transacción válida: caja={}, cajero={}, turno={}", codigoCaja, codigoCajero, codigoTurno);
+        return resultado;
+    }
+
+    @CircuitBreaker(name = "validacionTurno", fallbackMethod = "validarTurnoAbiertoRespaldo")
+    @Bulkhead(name = "validacionTurno", fallbackMethod = "validarTurnoAbiertoRespaldo")
     public void validarTurnoAbierto(String codigoTurno) {
         log.info("Validando turno abierto: {}", codigoTurno);
-        
+
         try {
             String url = turnoServiceUrl + "/api/validaciones/turno/" + codigoTurno;
-            ResponseEntity<Object> response = restTemplate.getForEntity(url, Object.class);
-            
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Turno válido y abierto: {}", codigoTurno);
-            } else if (response.getStatusCode().value() == 409) {
+            restTemplate.getForEntity(url, Object.class);
+            log.info("Turno válido y abierto: {}", codigoTurno);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.CONFLICT)) {
                 throw new TurnoNoAbiertoException("TransaccionTurno", "El turno no está abierto: " + codigoTurno);
-            } else {
-                throw new TurnoNoAbiertoException("TransaccionTurno", "Turno no encontrado: " + codigoTurno);
             }
-        } catch (Exception e) {
+            throw new TurnoNoAbiertoException("TransaccionTurno", "Turno no encontrado: " + codigoTurno);
+        } catch (RestClientException e) {
             log.error("Error al validar turno: {}", e.getMessage());
-            throw new TurnoNoAbiertoException("TransaccionTurno", "Error al validar turno: " + e.getMessage());
+            throw new TurnoServicioNoDisponibleException("TransaccionTurno", "Error al validar turno: " + e.getMessage());
         }
     }
 
+    @CircuitBreaker(name = "validacionCaja", fallbackMethod = "rechazarPorServicioNoDisponible")
+    @Bulkhead(name = "validacionCaja", fallbackMethod = "rechazarPorServicioNoDisponible")
     public void validarCaja(String codigoCaja) {
         log.info("Validando caja: {}", codigoCaja);
         
+        ResponseEntity<Boolean> response;
         try {
             String url = turnoServiceUrl + "/api/validaciones/caja/" + codigoCaja;
-            ResponseEntity<Boolean> response = restTemplate.getForEntity(url, Boolean.class);
-            
-            if (!response.getStatusCode().is2xxSuccessful() || !Boolean.TRUE.equals(response.getBody())) {
-                throw new IllegalArgumentException("Caja no válida: " + codigoCaja);
-            }
-            
-            log.info("Caja válida: {}", codigoCaja);
-        } catch (Exception e) {
+            response = restTemplate.getForEntity(url, Boolean.class);
+        } catch (HttpClientErrorException e) {
+            throw new IllegalArgumentException("Caja no válida: " + codigoCaja);
+        } catch (RestClientException e) {
             log.error("Error al validar caja: {}", e.getMessage());
-            throw new IllegalArgumentException("Error al validar caja: " + e.getMessage());
+            throw new TurnoServicioNoDisponibleException("TransaccionTurno", "Error al validar caja: " + e.getMessage());
         }
+
+        if (!Boolean.TRUE.equals(response.getBody())) {
+            throw new IllegalArgumentException("Caja no válida: " + codigoCaja);
+        }
+        
+        log.info("Caja válida: {}", codigoCaja);
     }
 
+    @CircuitBreaker(name = "validacionCajero", fallbackMethod = "rechazarPorServicioNoDisponible")
+    @Bulkhead(name = "validacionCajero", fallbackMethod = "rechazarPorServicioNoDisponible")
     public void validarCajero(String codigoCajero) {
         log.info("Validando cajero: {}", codigoCajero);
         
+        ResponseEntity<Boolean> response;
         try {
             String url = turnoServiceUrl + "/api/validaciones/cajero/" + codigoCajero;
-            ResponseEntity<Boolean> response = restTemplate.getForEntity(url, Boolean.class);
-            
-            if (!response.getStatusCode().is2xxSuccessful() || !Boolean.TRUE.equals(response.getBody())) {
-                throw new IllegalArgumentException("Cajero no válido: " + codigoCajero);
-            }
-            
-            log.info("Cajero válido: {}", codigoCajero);
-        } catch (Exception e) {
+            response = restTemplate.getForEntity(url, Boolean.class);
+        } catch (HttpClientErrorException e) {
+            throw new IllegalArgumentException("Cajero no válido: " + codigoCajero);
+        } catch (RestClientException e) {
             log.error("Error al validar cajero: {}", e.getMessage());
-            throw new IllegalArgumentException("Error al validar cajero: " + e.getMessage());
+            throw new TurnoServicioNoDisponibleException("TransaccionTurno", "Error al validar cajero: " + e.getMessage());
         }
+
+        if (!Boolean.TRUE.equals(response.getBody())) {
+            throw new IllegalArgumentException("Cajero no válido: " + codigoCajero);
+        }
+        
+        log.info("Cajero válido: {}", codigoCajero);
     }
 
+    @CircuitBreaker(name = "validacionCajeroEnCaja", fallbackMethod = "rechazarPorServicioNoDisponible")
+    @Bulkhead(name = "validacionCajeroEnCaja", fallbackMethod = "rechazarPorServicioNoDisponible")
     public void validarCajeroEnCaja(String codigoCaja, String codigoCajero) {
         log.info("Validando cajero en caja: caja={}, cajero={}", codigoCaja, codigoCajero);
         
+        ResponseEntity<Boolean> response;
         try {
             String url = turnoServiceUrl + "/api/validaciones/caja/" + codigoCaja + "/cajero/" + codigoCajero;
-            ResponseEntity<Boolean> response = restTemplate.getForEntity(url, Boolean.class);
-            
-            if (!response.getStatusCode().is2xxSuccessful() || !Boolean.TRUE.equals(response.getBody())) {
-                throw new IllegalArgumentException("Cajero no autorizado en caja: " + codigoCajero + " - " + codigoCaja);
-            }
-            
-            log.info("Cajero autorizado en caja: caja={}, cajero={}", codigoCaja, codigoCajero);
-        } catch (Exception e) {
+            response = restTemplate.getForEntity(url, Boolean.class);
+        } catch (HttpClientErrorException e) {
+            throw new IllegalArgumentException("Cajero no autorizado en caja: " + codigoCajero + " - " + codigoCaja);
+        } catch (RestClientException e) {
             log.error("Error al validar cajero en caja: {}", e.getMessage());
-            throw new IllegalArgumentException("Error al validar cajero en caja: " + e.getMessage());
+            throw new TurnoServicioNoDisponibleException("TransaccionTurno", "Error al validar cajero en caja: " + e.getMessage());
+        }
+
+        if (!Boolean.TRUE.equals(response.getBody())) {
+            throw new IllegalArgumentException("Cajero no autorizado en caja: " + codigoCajero + " - " + codigoCaja);
+        }
+        
+        log.info("Cajero autorizado en caja: caja={}, cajero={}", codigoCaja, codigoCajero);
+    }
+
+    // ================= RESPALDOS =================
+    // Resilience4j elige el respaldo según el tipo de excepción; las excepciones de negocio no coinciden y se propagan.
+
+    private ResultadoValidacionDTO validarTransaccionRespaldo(String codigoCaja, String codigoCajero, String codigoTurno,
+                                                               TurnoServicioNoDisponibleException e) {
+        return respaldoTransaccion(codigoCaja, codigoCajero, codigoTurno, e);
+    }
+
+    private ResultadoValidacionDTO validarTransaccionRespaldo(String codigoCaja, String codigoCajero, String codigoTurno,
+                                                               CallNotPermittedException e) {
+        return respaldoTransaccion(codigoCaja, codigoCajero, codigoTurno, e);
+    }
+
+    private ResultadoValidacionDTO validarTransaccionRespaldo(String codigoCaja, String codigoCajero, String codigoTurno,
+                                                               BulkheadFullException e) {
+        return respaldoTransaccion(codigoCaja, codigoCajero, codigoTurno, e);
+    }
+
+    private void validarTurnoAbiertoRespaldo(String codigoTurno, TurnoServicioNoDisponibleException e) {
+        respaldoTurno(codigoTurno, e);
+    }
+
+    private void validarTurnoAbiertoRespaldo(String codigoTurno, CallNotPermittedException e) {
+        respaldoTurno(codigoTurno, e);
+    }
+
+    private void validarTurnoAbiertoRespaldo(String codigoTurno, BulkheadFullException e) {
+        respaldoTurno(codigoTurno, e);
+    }
+
+    private void rechazarPorServicioNoDisponible(String codigo, CallNotPermittedException e) {
+        throw noDisponible(e);
+    }
+
+    private void rechazarPorServicioNoDisponible(String codigo, BulkheadFullException e) {
+        throw noDisponible(e);
+    }
+
+    private void rechazarPorServicioNoDisponible(String codigoCaja, String codigoCajero, CallNotPermittedException e) {
+        throw noDisponible(e);
+    }
+
+    private void rechazarPorServicioNoDisponible(String codigoCaja, String codigoCajero, BulkheadFullException e) {
+        throw noDisponible(e);
+    }
+
+    private ResultadoValidacionDTO respaldoTransaccion(String codigoCaja, String codigoCajero, String codigoTurno, Exception e) {
+        return turnoAbiertoCache.obtenerRespaldo(codigoCaja, codigoCajero, codigoTurno)
+                .map(resultado -> {
+                    log.warn("Servicio de turnos no disponible, se usa la última validación del turno {}: {}", codigoTurno, e.getMessage());
+                    return resultado;
+                })
+                .orElseThrow(() -> noDisponible(e));
+    }
+
+    private void respaldoTurno(String codigoTurno, Exception e) {
+        if (!turnoAbiertoCache.tieneRespaldo(codigoTurno)) {
+            throw noDisponible(e);
+        }
+        log.warn("Servicio de turnos no disponible, se usa la última validación del turno {}: {}", codigoTurno, e.getMessage());
+    }
+
+    private TurnoServicioNoDisponibleException noDisponible(Exception e) {
+        if (e instanceof TurnoServicioNoDisponibleException noDisponible) {
+            return noDisponible;
         }
+        return new TurnoServicioNoDisponibleException("TransaccionTurno", "Servicio de turnos no disponible: " + e.getMessage());
     }
-} 
\ No newline at end of file
+}
@@ -3,7 +3,7 @@ package ec.edu.espe.transaccion;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "transaccion.codigo.nodo=0")
 class TransaccionApplicationTests {
 
 	@Test
@@ -0,0 +1,53 @@
+package ec.edu.espe.transaccion.benchmark;
+
+import ec.edu.espe.transaccion.servicio.GeneradorCodigoTransaccion;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Generación de códigos de transacción: el esquema anterior (8 caracteres de un UUID aleatorio, que pasa por
+// SecureRandom) frente a GeneradorCodigoTransaccion, con uno y con ocho hilos compitiendo
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodigoTransaccionBenchmark {
+
+    private GeneradorCodigoTransaccion generador;
+
+    @Setup
+    public void preparar() {
+        generador = new GeneradorCodigoTransaccion("1");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String uuidUnHilo() {
+        return codigoUuid();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidOchoHilos() {
+        return codigoUuid();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generadorUnHilo() {
+        return generador.generar();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generadorOchoHilos() {
+        return generador.generar();
+    }
+
+    private static String codigoUuid() {
+        return "TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
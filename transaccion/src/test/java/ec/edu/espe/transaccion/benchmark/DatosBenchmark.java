@@ -0,0 +1,52 @@
+package ec.edu.espe.transaccion.benchmark;
+
+import ec.edu.espe.transaccion.dto.DenominacionDTO;
+import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.modelo.Denominacion;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Datos de prueba compartidos por los benchmarks
+final class DatosBenchmark {
+
+    private static final String[] TIPOS = {"DEPOSITO", "AHORRO", "DEPOSITO", "INICIO"};
+
+    private DatosBenchmark() {
+    }
+
+    static List<DenominacionDTO> denominacionesDTO() {
+        return List.of(
+            new DenominacionDTO(100, 2, new BigDecimal("200")),
+            new DenominacionDTO(20, 3, new BigDecimal("60")),
+            new DenominacionDTO(5, 4, new BigDecimal("20")),
+            new DenominacionDTO(1, 5, new BigDecimal("5")));
+    }
+
+    static TransaccionTurnoCreacionDTO solicitud() {
+        return new TransaccionTurnoCreacionDTO("CAJ01", "USU01", "CAJ01-USU01-20250109", "DEPOSITO",
+            new BigDecimal("285"), denominacionesDTO());
+    }
+
+    static TransaccionTurno transaccion(int i) {
+        List<Denominacion> denominaciones = List.of(
+            new Denominacion(100, 2, new BigDecimal("200")),
+            new Denominacion(20, 3, new BigDecimal("60")),
+            new Denominacion(5, 4, new BigDecimal("20")),
+            new Denominacion(1, 5, new BigDecimal("5")));
+        return new TransaccionTurno(null, "TXN" + String.format("%08d", i), "CAJ01", "USU01", "CAJ01-USU01-20250109",
+            TIPOS[i % TIPOS.length], new BigDecimal("285"), denominaciones, LocalDateTime.now(), 1L,
+            TransaccionTurno.PUBLICACION_PENDIENTE, null);
+    }
+
+    static List<TransaccionTurno> transacciones(int cantidad) {
+        List<TransaccionTurno> transacciones = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            transacciones.add(transaccion(i));
+        }
+        return transacciones;
+    }
+}
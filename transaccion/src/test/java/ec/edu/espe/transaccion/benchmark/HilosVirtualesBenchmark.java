@@ -0,0 +1,105 @@
+package ec.edu.espe.transaccion.benchmark;
+
+import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.validacion.ValidadorSolicitudes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Atiende una ráfaga de solicitudes concurrentes con la forma de procesarTransaccion: validación en memoria,
+// espera por la llamada al servicio de turnos y espera por Mongo. Compara el pool de plataforma de Tomcat
+// (200 hilos por defecto) con un hilo virtual por solicitud, y muestra el efecto de bloquear dentro de un
+// synchronized, que fija el hilo virtual a su portador.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HilosVirtualesBenchmark {
+
+    private static final int HILOS_TOMCAT = 200;
+    private static final long ESPERA_TURNOS_MS = 5;
+    private static final long ESPERA_MONGO_MS = 2;
+
+    @Param({"1000", "10000"})
+    private int solicitudesConcurrentes;
+
+    private ValidadorSolicitudes validador;
+    private TransaccionTurnoCreacionDTO solicitud;
+    private ExecutorService plataforma;
+    private ExecutorService virtuales;
+
+    @Setup
+    public void preparar() {
+        validador = new ValidadorSolicitudes();
+        solicitud = DatosBenchmark.solicitud();
+        plataforma = Executors.newFixedThreadPool(HILOS_TOMCAT);
+        virtuales = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown
+    public void cerrar() {
+        plataforma.shutdownNow();
+        virtuales.shutdownNow();
+    }
+
+    @Benchmark
+    public int hilosPlataforma() throws Exception {
+        return atender(plataforma, this::solicitudConLock);
+    }
+
+    @Benchmark
+    public int hilosVirtuales() throws Exception {
+        return atender(virtuales, this::solicitudConLock);
+    }
+
+    @Benchmark
+    public int hilosVirtualesFijados() throws Exception {
+        return atender(virtuales, this::solicitudConSynchronized);
+    }
+
+    private int atender(ExecutorService executor, Runnable solicitud) throws Exception {
+        List<Future<?>> pendientes = new ArrayList<>(solicitudesConcurrentes);
+        for (int i = 0; i < solicitudesConcurrentes; i++) {
+            pendientes.add(executor.submit(solicitud));
+        }
+        for (Future<?> pendiente : pendientes) {
+            pendiente.get();
+        }
+        return pendientes.size();
+    }
+
+    private void solicitudConLock() {
+        ReentrantLock lock = new ReentrantLock();
+        lock.lock();
+        try {
+            procesar();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void solicitudConSynchronized() {
+        Object monitor = new Object();
+        synchronized (monitor) {
+            procesar();
+        }
+    }
+
+    private void procesar() {
+        validador.validarSolicitudTransaccion(solicitud);
+        try {
+            Thread.sleep(ESPERA_TURNOS_MS);
+            Thread.sleep(ESPERA_MONGO_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
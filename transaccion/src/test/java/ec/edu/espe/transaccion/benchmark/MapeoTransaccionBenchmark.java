@@ -0,0 +1,42 @@
+package ec.edu.espe.transaccion.benchmark;
+
+import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.dto.TransaccionTurnoDTO;
+import ec.edu.espe.transaccion.mapper.DenominacionMapperImpl;
+import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapperImpl;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeoTransaccionBenchmark {
+
+    private TransaccionTurnoMapperImpl mapper;
+    private TransaccionTurnoCreacionDTO solicitud;
+    private TransaccionTurno transaccion;
+
+    @Setup
+    public void preparar() {
+        mapper = new TransaccionTurnoMapperImpl();
+        ReflectionTestUtils.setField(mapper, "denominacionMapper", new DenominacionMapperImpl());
+        solicitud = DatosBenchmark.solicitud();
+        transaccion = DatosBenchmark.transaccion(1);
+    }
+
+    @Benchmark
+    public TransaccionTurno dtoAEntidad() {
+        return mapper.toEntity(solicitud);
+    }
+
+    @Benchmark
+    public TransaccionTurnoDTO entidadADto() {
+        return mapper.toDTO(transaccion);
+    }
+}
@@ -0,0 +1,89 @@
+package ec.edu.espe.transaccion.benchmark;
+
+import ec.edu.espe.transaccion.metricas.MedidorEtapas;
+import ec.edu.espe.transaccion.servicio.TurnoAbiertoCache;
+import ec.edu.espe.transaccion.servicio.ValidacionParalelaService;
+import ec.edu.espe.transaccion.servicio.ValidacionTurnoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Latencia de las cuatro validaciones individuales una tras otra frente a lanzarlas a la vez.
+// Cada llamada al servicio de turnos se simula con una espera; la caché se vacía en cada invocación.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacionParalelaBenchmark {
+
+    private static final String CAJA = "CAJ01";
+    private static final String CAJERO = "USU01";
+    private static final String TURNO = "CAJ01-USU01-20250109";
+
+    private TurnoAbiertoCache cache;
+    private ValidacionTurnoService validacionTurnoService;
+    private ValidacionParalelaService validacionParalelaService;
+
+    @Setup
+    public void preparar() {
+        cache = new TurnoAbiertoCache(new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5), Duration.ofMinutes(30), false);
+        validacionTurnoService = new ServicioTurnosSimulado(cache);
+        validacionParalelaService = new ValidacionParalelaService(validacionTurnoService, cache,
+            new MedidorEtapas(new SimpleMeterRegistry()), false, 64, 1000);
+    }
+
+    @Benchmark
+    public void secuencial() {
+        cache.invalidar(TURNO);
+        validacionTurnoService.validarCaja(CAJA);
+        validacionTurnoService.validarCajero(CAJERO);
+        validacionTurnoService.validarCajeroEnCaja(CAJA, CAJERO);
+        validacionTurnoService.validarTurnoAbierto(TURNO);
+    }
+
+    @Benchmark
+    public void paralela() {
+        cache.invalidar(TURNO);
+        validacionParalelaService.validar(CAJA, CAJERO, TURNO);
+    }
+
+    // Latencias distintas por validación para que la más lenta domine en el modo paralelo
+    private static final class ServicioTurnosSimulado extends ValidacionTurnoService {
+
+        ServicioTurnosSimulado(TurnoAbiertoCache cache) {
+            super(null, cache);
+        }
+
+        @Override
+        public void validarCaja(String codigoCaja) {
+            esperar(2);
+        }
+
+        @Override
+        public void validarCajero(String codigoCajero) {
+            esperar(2);
+        }
+
+        @Override
+        public void validarCajeroEnCaja(String codigoCaja, String codigoCajero) {
+            esperar(3);
+        }
+
+        @Override
+        public void validarTurnoAbierto(String codigoTurno) {
+            esperar(5);
+        }
+
+        private static void esperar(long milisegundos) {
+            try {
+                Thread.sleep(milisegundos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
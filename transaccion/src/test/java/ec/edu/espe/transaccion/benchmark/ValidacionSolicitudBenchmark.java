@@ -0,0 +1,69 @@
+package ec.edu.espe.transaccion.benchmark;
+
+import ec.edu.espe.transaccion.dto.DenominacionDTO;
+import ec.edu.espe.transaccion.dto.TransaccionTurnoCreacionDTO;
+import ec.edu.espe.transaccion.validacion.ResultadoValidacion;
+import ec.edu.espe.transaccion.validacion.ValidadorSolicitudes;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacionSolicitudBenchmark {
+
+    private static final Set<Integer> DENOMINACIONES_VALIDAS = Set.of(1, 5, 10, 20, 50, 100);
+    private static final Set<String> TIPOS_TRANSACCION_VALIDOS = Set.of("INICIO", "AHORRO", "DEPOSITO", "CIERRE");
+
+    private ValidadorSolicitudes validador;
+    private TransaccionTurnoCreacionDTO solicitud;
+
+    @Setup
+    public void preparar() {
+        validador = new ValidadorSolicitudes();
+        solicitud = DatosBenchmark.solicitud();
+    }
+
+    @Benchmark
+    public ResultadoValidacion validadorCompartido() {
+        return validador.validarSolicitudTransaccion(solicitud);
+    }
+
+    @Benchmark
+    public boolean validacionAnterior() {
+        return validarComoAntes(solicitud);
+    }
+
+    /**
+     * Réplica de la validación que hacía el controlador antes de compartir el validador:
+     * String.matches compila la expresión en cada llamada y las denominaciones se
+     * verifican con multiplicaciones BigDecimal.
+     */
+    private static boolean validarComoAntes(TransaccionTurnoCreacionDTO dto) {
+        if (!dto.getCodigoCaja().matches("^CAJ\\d{2}$")
+                || !dto.getCodigoCajero().matches("^USU\\d{2}$")
+                || !dto.getCodigoTurno().matches("^CAJ\\d{2}-USU\\d{2}-\\d{8}$")
+                || !TIPOS_TRANSACCION_VALIDOS.contains(dto.getTipoTransaccion().toUpperCase())
+                || dto.getMontoTotal().compareTo(BigDecimal.ZERO) <= 0) {
+            return false;
+        }
+        BigDecimal suma = BigDecimal.ZERO;
+        for (DenominacionDTO den : dto.getDenominaciones()) {
+            if (!DENOMINACIONES_VALIDAS.contains(den.getBillete())) {
+                return false;
+            }
+            BigDecimal montoEsperado = BigDecimal.valueOf(den.getBillete()).multiply(BigDecimal.valueOf(den.getCantidad()));
+            if (montoEsperado.compareTo(den.getMonto()) != 0) {
+                return false;
+            }
+            suma = suma.add(den.getMonto());
+        }
+        return suma.compareTo(dto.getMontoTotal()) == 0;
+    }
+}
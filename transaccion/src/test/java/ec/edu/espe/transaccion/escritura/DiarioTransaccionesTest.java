@@ -0,0 +1,73 @@
+package ec.edu.espe.transaccion.escritura;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiarioTransaccionesTest {
+
+    private static final int TAMANIO_SEGMENTO = 64;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void reabrirDevuelveSoloLoNoConfirmado() {
+        DiarioTransacciones.Posicion primera;
+        try (DiarioTransacciones diario = new DiarioTransacciones(directorio, TAMANIO_SEGMENTO)) {
+            primera = diario.agregar(bytes("uno"), false);
+            diario.agregar(bytes("dos"), false);
+            diario.confirmar(primera);
+        }
+
+        try (DiarioTransacciones diario = new DiarioTransacciones(directorio, TAMANIO_SEGMENTO)) {
+            List<DiarioTransacciones.Registro> pendientes = diario.pendientes();
+            assertEquals(1, pendientes.size());
+            assertEquals("dos", texto(pendientes.get(0).contenido()));
+        }
+    }
+
+    @Test
+    void rotaSegmentosYEliminaLosConfirmados() {
+        try (DiarioTransacciones diario = new DiarioTransacciones(directorio, TAMANIO_SEGMENTO)) {
+            DiarioTransacciones.Posicion ultima = null;
+            for (int i = 0; i < 10; i++) {
+                ultima = diario.agregar(bytes("registro-" + i), true);
+            }
+            assertTrue(ultima.segmento() > 0);
+            assertEquals(10, diario.pendientes().size());
+
+            diario.confirmar(ultima);
+            assertEquals(0, diario.pendientes().size());
+            assertEquals(TAMANIO_SEGMENTO, diario.bytesEnDisco());
+        }
+    }
+
+    @Test
+    void continuaEscribiendoDespuesDelUltimoRegistro() {
+        try (DiarioTransacciones diario = new DiarioTransacciones(directorio, TAMANIO_SEGMENTO)) {
+            diario.agregar(bytes("antes"), false);
+        }
+        try (DiarioTransacciones diario = new DiarioTransacciones(directorio, TAMANIO_SEGMENTO)) {
+            diario.agregar(bytes("despues"), false);
+            List<DiarioTransacciones.Registro> pendientes = diario.pendientes();
+            assertEquals(2, pendientes.size());
+            assertEquals("antes", texto(pendientes.get(0).contenido()));
+            assertEquals("despues", texto(pendientes.get(1).contenido()));
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String texto(byte[] contenido) {
+        return new String(contenido, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+package ec.edu.espe.transaccion.escritura;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.mongodb.bulk.BulkWriteError;
+import ec.edu.espe.transaccion.excepcion.ActualizarTransaccionException;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import ec.edu.espe.transaccion.servicio.EscrituraLoteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Una transacción que Mongo rechaza por algo distinto de una clave duplicada ya se confirmó al cliente:
+// no puede salir del diario hasta que quede guardada, ni siquiera tras un reinicio
+class EscrituraDiferidaServiceTest {
+
+    private static final String CODIGO_TURNO = "CAJ01-USU01-20250109";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    Path ruta;
+
+    @Test
+    void laRechazadaSobreviveAlReinicioYSeGuardaAlReintentar() {
+        EscrituraLoteService rechazaLaSegunda = mock(EscrituraLoteService.class);
+        when(rechazaLaSegunda.insertar(anyList())).thenAnswer(invocacion -> {
+            // Las dos pueden llegar en el mismo lote o en lotes distintos
+            List<TransaccionTurno> lote = invocacion.getArgument(0);
+            Map<Integer, BulkWriteError> errores = new HashMap<>();
+            for (int i = 0; i < lote.size(); i++) {
+                if (lote.get(i).getCodigoTransaccion().equals("TXN0000000000002")) {
+                    errores.put(i, new BulkWriteError(121, "Document failed validation", new BsonDocument(), i));
+                }
+            }
+            return errores;
+        });
+
+        EscrituraDiferidaService servicio = servicio(rechazaLaSegunda);
+        servicio.iniciar();
+        try {
+            assertTrue(servicio.encolar(transaccion("TXN0000000000001")));
+            assertTrue(servicio.encolar(transaccion("TXN0000000000002")));
+            verify(rechazaLaSegunda, timeout(5_000).atLeastOnce()).insertar(anyList());
+
+            // La rechazada sigue pendiente para su turno
+            assertThrows(ActualizarTransaccionException.class,
+                () -> servicio.esperarTurno(CODIGO_TURNO, Duration.ofMillis(200)));
+        } finally {
+            servicio.detener();
+        }
+
+        List<String> guardadas = new CopyOnWriteArrayList<>();
+        EscrituraLoteService acepta = mock(EscrituraLoteService.class);
+        when(acepta.insertar(anyList())).thenAnswer(invocacion -> {
+            for (TransaccionTurno transaccion : invocacion.<List<TransaccionTurno>>getArgument(0)) {
+                guardadas.add(transaccion.getCodigoTransaccion());
+            }
+            return Map.of();
+        });
+
+        EscrituraDiferidaService reiniciado = servicio(acepta);
+        reiniciado.iniciar();
+        try {
+            reiniciado.esperarTurno(CODIGO_TURNO, Duration.ofSeconds(5));
+            // La primera ya se había confirmado en el diario principal y no se vuelve a escribir
+            assertEquals(List.of("TXN0000000000002"), guardadas);
+        } finally {
+            reiniciado.detener();
+        }
+    }
+
+    private EscrituraDiferidaService servicio(EscrituraLoteService escrituraLoteService) {
+        return new EscrituraDiferidaService(escrituraLoteService, objectMapper, new SimpleMeterRegistry(),
+            ModoEscritura.DIFERIDO, NivelDurabilidad.PERIODICO, ruta, 1 << 16, 10, 100,
+            Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofHours(1));
+    }
+
+    private static TransaccionTurno transaccion(String codigoTransaccion) {
+        TransaccionTurno transaccion = new TransaccionTurno();
+        transaccion.setCodigoTransaccion(codigoTransaccion);
+        transaccion.setCodigoCaja("CAJ01");
+        transaccion.setCodigoCajero("USU01");
+        transaccion.setCodigoTurno(CODIGO_TURNO);
+        transaccion.setTipoTransaccion("DEPOSITO");
+        transaccion.setMontoTotal(new BigDecimal("100"));
+        transaccion.setFechaTransaccion(LocalDateTime.now());
+        transaccion.setVersion(1L);
+        transaccion.setEstadoPublicacion(TransaccionTurno.PUBLICACION_PENDIENTE);
+        return transaccion;
+    }
+}
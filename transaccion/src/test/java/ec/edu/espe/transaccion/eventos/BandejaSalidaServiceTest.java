@@ -0,0 +1,167 @@
+package ec.edu.espe.transaccion.eventos;
+
+import ec.edu.espe.transaccion.dto.EventoTransaccionDTO;
+import ec.edu.espe.transaccion.escritura.EscrituraDiferidaService;
+import ec.edu.espe.transaccion.mapper.TransaccionTurnoMapper;
+import ec.edu.espe.transaccion.modelo.TransaccionTurno;
+import ec.edu.espe.transaccion.repositorio.TransaccionTurnoRepositorio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BandejaSalidaServiceTest {
+
+    private static final int TAMANIO_LOTE = 2;
+
+    private TransaccionTurnoRepositorio repositorio;
+    private MongoTemplate mongoTemplate;
+    private BrokerEnMemoria broker;
+    private BandejaSalidaService bandejaSalida;
+
+    // Bandeja de salida simulada: las transacciones quedan pendientes hasta que se marcan como publicadas
+    private final List<TransaccionTurno> pendientes = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        repositorio = mock(TransaccionTurnoRepositorio.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        TransaccionTurnoMapper mapper = mock(TransaccionTurnoMapper.class);
+        when(mapper.toEvento(any())).thenAnswer(invocacion -> evento(invocacion.getArgument(0)));
+        when(repositorio.findByEstadoPublicacionOrderByIdAsc(eq(TransaccionTurno.PUBLICACION_PENDIENTE), any(Limit.class)))
+            .thenAnswer(invocacion -> pendientes.stream()
+                .limit(invocacion.<Limit>getArgument(1).max())
+                .toList());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(TransaccionTurno.class)))
+            .thenAnswer(invocacion -> {
+                // Con un lote de tamaño fijo las marcadas son siempre las primeras pendientes
+                pendientes.subList(0, Math.min(TAMANIO_LOTE, pendientes.size())).clear();
+                return null;
+            });
+
+        broker = new BrokerEnMemoria();
+        bandejaSalida = new BandejaSalidaService(repositorio, mapper, mongoTemplate, broker, mock(EscrituraDiferidaService.class),
+            new SimpleMeterRegistry(), false, Duration.ofMillis(10), Duration.ofMillis(10), TAMANIO_LOTE, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void publicaEnOrdenYMarcaLasPublicadas() {
+        pendientes.addAll(List.of(transaccion(1), transaccion(2), transaccion(3)));
+
+        assertEquals(2, bandejaSalida.publicarPendientes());
+        assertEquals(1, bandejaSalida.publicarPendientes());
+        assertEquals(0, bandejaSalida.publicarPendientes());
+
+        assertEquals(List.of("TXN1", "TXN2", "TXN3"), broker.codigosRecibidos());
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), any(Update.class), eq(TransaccionTurno.class));
+    }
+
+    @Test
+    void unFalloDelBrokerDejaElLotePendiente() {
+        pendientes.addAll(List.of(transaccion(1), transaccion(2)));
+        broker.fallarSiguientes(1);
+
+        assertThrows(IllegalStateException.class, bandejaSalida::publicarPendientes);
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(TransaccionTurno.class));
+        assertEquals(2, pendientes.size());
+
+        assertEquals(2, bandejaSalida.publicarPendientes());
+        assertEquals(List.of("TXN1", "TXN2"), broker.codigosRecibidos());
+        assertEquals(0, pendientes.size());
+    }
+
+    @Test
+    void unaReentregaNoDuplicaEventosEnElConsumidor() {
+        pendientes.addAll(List.of(transaccion(1), transaccion(2)));
+        // El consumidor confirma pero la marca no llega a guardarse (p. ej. caída del proceso)
+        doThrow(new IllegalStateException("Mongo no disponible"))
+            .doAnswer(invocacion -> {
+                pendientes.clear();
+                return null;
+            })
+            .when(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(TransaccionTurno.class));
+
+        assertThrows(IllegalStateException.class, bandejaSalida::publicarPendientes);
+        assertEquals(2, bandejaSalida.publicarPendientes());
+
+        assertEquals(4, broker.entregas());
+        assertEquals(List.of("TXN1", "TXN2"), broker.codigosRecibidos());
+    }
+
+    private static TransaccionTurno transaccion(int i) {
+        TransaccionTurno transaccion = new TransaccionTurno();
+        transaccion.setId(String.format("%024d", i));
+        transaccion.setCodigoTransaccion("TXN" + i);
+        transaccion.setCodigoTurno("CAJ01-USU01-20250109");
+        transaccion.setTipoTransaccion("DEPOSITO");
+        transaccion.setMontoTotal(new BigDecimal("100"));
+        transaccion.setFechaTransaccion(LocalDateTime.now());
+        transaccion.setEstadoPublicacion(TransaccionTurno.PUBLICACION_PENDIENTE);
+        return transaccion;
+    }
+
+    private static EventoTransaccionDTO evento(TransaccionTurno transaccion) {
+        EventoTransaccionDTO evento = new EventoTransaccionDTO();
+        evento.setCodigoTransaccion(transaccion.getCodigoTransaccion());
+        evento.setCodigoTurno(transaccion.getCodigoTurno());
+        evento.setTipoTransaccion(transaccion.getTipoTransaccion());
+        evento.setMontoTotal(transaccion.getMontoTotal());
+        evento.setFechaTransaccion(transaccion.getFechaTransaccion());
+        return evento;
+    }
+
+    // Sustituto en proceso del microservicio de turnos: descarta las entregas repetidas por codigoTransaccion,
+    // igual que el índice único de movimientos_turno
+    private static final class BrokerEnMemoria implements PublicadorEventos {
+
+        private final Map<String, EventoTransaccionDTO> recibidos = new LinkedHashMap<>();
+        private int entregas;
+        private int fallosPendientes;
+
+        void fallarSiguientes(int cantidad) {
+            fallosPendientes = cantidad;
+        }
+
+        @Override
+        public void publicar(List<EventoTransaccionDTO> eventos) {
+            if (fallosPendientes > 0) {
+                fallosPendientes--;
+                throw new IllegalStateException("Broker no disponible");
+            }
+            for (EventoTransaccionDTO evento : eventos) {
+                entregas++;
+                recibidos.putIfAbsent(evento.getCodigoTransaccion(), evento);
+            }
+        }
+
+        int entregas() {
+            return entregas;
+        }
+
+        List<String> codigosRecibidos() {
+            return new ArrayList<>(recibidos.keySet());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ec.edu.espe.transaccion.servicio;
+
+import ec.edu.espe.transaccion.validacion.ResultadoValidacion;
+import ec.edu.espe.transaccion.validacion.ValidadorSolicitudes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneradorCodigoTransaccionTest {
+
+    private static final int HILOS = 8;
+    private static final int CODIGOS_POR_HILO = 200_000;
+
+    @Test
+    void generaCodigosConFormatoValido() {
+        GeneradorCodigoTransaccion generador = new GeneradorCodigoTransaccion("7");
+        String codigo = generador.generar();
+
+        assertEquals(GeneradorCodigoTransaccion.LONGITUD, codigo.length());
+        assertTrue(codigo.startsWith(GeneradorCodigoTransaccion.PREFIJO));
+        assertTrue(codigo.substring(3).matches("[0-9A-HJKMNP-TV-Z]{13}"));
+
+        ResultadoValidacion resultado = new ResultadoValidacion();
+        assertTrue(new ValidadorSolicitudes().validarCodigoTransaccion(codigo, resultado));
+    }
+
+    @Test
+    void sinColisionesYCrecientesPorHiloConVariosHilos() throws Exception {
+        GeneradorCodigoTransaccion generador = new GeneradorCodigoTransaccion("1");
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> futuros = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                Callable<List<String>> tarea = () -> {
+                    salida.await();
+                    List<String> codigos = new ArrayList<>(CODIGOS_POR_HILO);
+                    for (int i = 0; i < CODIGOS_POR_HILO; i++) {
+                        codigos.add(generador.generar());
+                    }
+                    return codigos;
+                };
+                futuros.add(executor.submit(tarea));
+            }
+
+            salida.countDown();
+            Set<String> todos = new HashSet<>(HILOS * CODIGOS_POR_HILO);
+            for (Future<List<String>> futuro : futuros) {
+                List<String> codigos = futuro.get();
+                for (int i = 1; i < codigos.size(); i++) {
+                    assertTrue(codigos.get(i - 1).compareTo(codigos.get(i)) < 0, "Códigos no crecientes en un hilo");
+                }
+                todos.addAll(codigos);
+            }
+
+            assertEquals(HILOS * CODIGOS_POR_HILO, todos.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void nodosDistintosNoColisionanEnElMismoMilisegundo() {
+        GeneradorCodigoTransaccion nodoA = new GeneradorCodigoTransaccion(1, () -> GeneradorCodigoTransaccion.EPOCA + 1_000);
+        GeneradorCodigoTransaccion nodoB = new GeneradorCodigoTransaccion(2, () -> GeneradorCodigoTransaccion.EPOCA + 1_000);
+
+        // Toda la secuencia de un milisegundo en ambos nodos
+        Set<String> codigos = new HashSet<>();
+        for (int i = 0; i < 4096; i++) {
+            codigos.add(nodoA.generar());
+            codigos.add(nodoB.generar());
+        }
+        assertEquals(8192, codigos.size());
+    }
+
+    @Test
+    void alAgotarLaSecuenciaEsperaAlRelojEnLugarDeAdelantarse() {
+        // El reloj queda detenido hasta que el generador lo consulta más veces de las que necesita una secuencia
+        AtomicLong consultas = new AtomicLong();
+        AtomicLong esperas = new AtomicLong();
+        long inicio = GeneradorCodigoTransaccion.EPOCA + 5_000;
+        GeneradorCodigoTransaccion generador = new GeneradorCodigoTransaccion(3,
+            () -> consultas.incrementAndGet() <= 10_000 ? inicio : inicio + 1, milisegundos -> esperas.incrementAndGet());
+
+        String anterior = generador.generar();
+        for (int i = 1; i < 4096; i++) {
+            String codigo = generador.generar();
+            assertTrue(anterior.compareTo(codigo) < 0);
+            anterior = codigo;
+        }
+        assertEquals(4096, consultas.get());
+
+        // El código 4097 no puede usar el milisegundo siguiente hasta que el reloj llegue a él
+        String siguiente = generador.generar();
+        assertTrue(anterior.compareTo(siguiente) < 0);
+        assertTrue(consultas.get() > 10_000);
+        // Entre consulta y consulta el hilo duerme en lugar de girar
+        assertEquals(consultas.get() - 4097, esperas.get());
+    }
+
+    @Test
+    void esperaSiElRelojRetrocedePocoYRechazaSiRetrocedeMucho() {
+        AtomicLong reloj = new AtomicLong(GeneradorCodigoTransaccion.EPOCA + 5_000);
+        List<Long> esperas = new ArrayList<>();
+        // El reloj avanza lo que el generador duerme
+        GeneradorCodigoTransaccion generador = new GeneradorCodigoTransaccion(3, reloj::get, milisegundos -> {
+            esperas.add(milisegundos);
+            reloj.addAndGet(milisegundos);
+        });
+
+        String anterior = generador.generar();
+        reloj.addAndGet(-2);
+        assertTrue(anterior.compareTo(generador.generar()) < 0);
+        // Una sola espera hasta el milisegundo siguiente al último entregado
+        assertEquals(List.of(3L), esperas);
+
+        reloj.addAndGet(-5_000);
+        assertThrows(IllegalStateException.class, generador::generar);
+    }
+
+    @Test
+    void exigeNodoConfigurado() {
+        assertThrows(IllegalStateException.class, () -> new GeneradorCodigoTransaccion(""));
+        assertThrows(IllegalStateException.class, () -> new GeneradorCodigoTransaccion("nodo-1"));
+    }
+
+    @Test
+    void rechazaNodoFueraDeRango() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new GeneradorCodigoTransaccion(GeneradorCodigoTransaccion.NODO_MAXIMO + 1, System::currentTimeMillis));
+    }
+}
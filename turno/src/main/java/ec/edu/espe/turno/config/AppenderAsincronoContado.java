@@ -0,0 +1,53 @@
+package ec.edu.espe.turno.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// AsyncAppender de logback que cuenta los eventos que descarta. Con neverBlock el hilo de la solicitud nunca
+// espera por el disco: si la cola está llena el evento se pierde, y por debajo del umbral de descarte se
+// pierden primero los eventos TRACE, DEBUG e INFO. Logback se configura antes que Spring, por eso las
+// instancias quedan en un registro estático que lee MetricasLogsConfig.
+public class AppenderAsincronoContado extends AsyncAppender {
+
+    private static final Map<String, AppenderAsincronoContado> INSTANCIAS = new ConcurrentHashMap<>();
+
+    private final LongAdder descartados = new LongAdder();
+
+    public static Map<String, AppenderAsincronoContado> instancias() {
+        return INSTANCIAS;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        INSTANCIAS.put(getName(), this);
+    }
+
+    @Override
+    public void stop() {
+        INSTANCIAS.remove(getName(), this);
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent evento) {
+        // Misma condición que AsyncAppenderBase; la lectura de la capacidad no es atómica, el conteo es aproximado
+        int capacidad = getRemainingCapacity();
+        if (capacidad == 0 || (capacidad < getDiscardingThreshold() && isDiscardable(evento))) {
+            descartados.increment();
+        }
+        super.append(evento);
+    }
+
+    public long descartados() {
+        return descartados.sum();
+    }
+
+    public int pendientes() {
+        return getNumberOfElementsInQueue();
+    }
+}
@@ -0,0 +1,51 @@
+package ec.edu.espe.turno.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Con hilos virtuales activos, registra cada vez que uno queda fijado a su hilo portador (bloqueo dentro de
+// un synchronized o en código nativo). Un hilo fijado ocupa el portador y reduce la concurrencia real.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class MonitorHilosVirtuales implements DisposableBean {
+
+    private static final String EVENTO_FIJADO = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream;
+
+    public MonitorHilosVirtuales(
+            MeterRegistry meterRegistry,
+            @Value("${hilos.virtuales.umbral-fijado:20ms}") Duration umbral) {
+        Counter fijados = Counter.builder("hilos.virtuales.fijados")
+                .description("Hilos virtuales que se bloquearon fijados a su portador más allá del umbral")
+                .register(meterRegistry);
+
+        stream = new RecordingStream();
+        stream.enable(EVENTO_FIJADO).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO_FIJADO, evento -> {
+            fijados.increment();
+            List<RecordedFrame> marcos = evento.getStackTrace() == null ? List.of() : evento.getStackTrace().getFrames();
+            log.warn("Hilo virtual fijado {} ms en {}", evento.getDuration().toMillis(),
+                    marcos.isEmpty() ? "origen desconocido" : marcos.get(0).getMethod().getType().getName() + "." + marcos.get(0).getMethod().getName());
+        });
+        stream.startAsync();
+        log.info("Atendiendo solicitudes con hilos virtuales; se reportan fijaciones mayores a {}", umbral);
+    }
+
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+}
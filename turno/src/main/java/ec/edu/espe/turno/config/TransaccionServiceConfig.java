@@ -0,0 +1,81 @@
+package ec.edu.espe.turno.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+// El cierre de turno llama de forma síncrona al microservicio de transacciones mientras el turno está en CERRANDO:
+// sin timeouts, un servicio colgado dejaría el cierre esperando indefinidamente
+@Configuration
+public class TransaccionServiceConfig {
+
+    @Value("${transaccion.service.http.max-conexiones:50}")
+    private int maxConexiones;
+
+    @Value("${transaccion.service.http.max-conexiones-por-ruta:20}")
+    private int maxConexionesPorRuta;
+
+    @Value("${transaccion.service.http.timeout-conexion:2s}")
+    private Duration timeoutConexion;
+
+    @Value("${transaccion.service.http.timeout-lectura:15s}")
+    private Duration timeoutLectura;
+
+    @Value("${transaccion.service.http.timeout-pool:1s}")
+    private Duration timeoutPool;
+
+    @Value("${transaccion.service.http.inactividad-maxima:30s}")
+    private Duration inactividadMaxima;
+
+    @Bean
+    public PoolingHttpClientConnectionManager transaccionConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConexiones)
+                .setMaxConnPerRoute(maxConexionesPorRuta)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(timeoutConexion))
+                        .setSocketTimeout(Timeout.of(timeoutLectura))
+                        .setValidateAfterInactivity(TimeValue.of(inactividadMaxima))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "transaccion-service").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient transaccionHttpClient(PoolingHttpClientConnectionManager transaccionConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(transaccionConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(timeoutPool))
+                        .setResponseTimeout(Timeout.of(timeoutLectura))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(inactividadMaxima))
+                .build();
+    }
+
+    // Construido con el builder de Spring para que cada llamada quede observada y propague el contexto de traza
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient transaccionHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(transaccionHttpClient))
+                .build();
+    }
+}
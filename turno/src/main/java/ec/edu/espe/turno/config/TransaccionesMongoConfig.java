@@ -0,0 +1,17 @@
+package ec.edu.espe.turno.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+// Transacciones de Mongo para escribir en varias colecciones a la vez (movimientos y saldo del turno).
+// Requieren Mongo en réplica; con él Spring Boot también expone un TransactionTemplate
+@Configuration
+public class TransaccionesMongoConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    }
+}
@@ -0,0 +1,37 @@
+package ec.edu.espe.turno.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+import java.nio.file.Path;
+
+// Trazas distribuidas: RestTemplate propaga el contexto (traceparent) y el servidor lo continúa porque se usan los
+// componentes de Spring; aquí se agregan los spans de cada comando de Mongo y el exportador local a archivo
+@Configuration
+public class TrazasConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservacion(ObservationRegistry observationRegistry) {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "trazas.archivo.habilitado", havingValue = "true", matchIfMissing = true)
+    public SpanExporter exportadorSpansArchivo(
+            ObjectMapper objectMapper,
+            @Value("${spring.application.name}") String servicio,
+            @Value("${trazas.archivo.ruta:./trazas}") Path ruta,
+            @Value("${trazas.archivo.tamanio-maximo:104857600}") long tamanioMaximo) {
+        return new ExportadorSpansArchivo(objectMapper, ruta, servicio, tamanioMaximo);
+    }
+}
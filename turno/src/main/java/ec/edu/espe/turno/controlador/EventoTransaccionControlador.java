@@ -0,0 +1,39 @@
+package ec.edu.espe.turno.controlador;
+
+import ec.edu.espe.turno.dto.EventoTransaccionDTO;
+import ec.edu.espe.turno.dto.ResultadoEventosDTO;
+import ec.edu.espe.turno.servicio.ProyeccionTurnoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/eventos")
+@Tag(name = "Eventos", description = "Recepción de eventos publicados por otros microservicios")
+@RequiredArgsConstructor
+@Slf4j
+public class EventoTransaccionControlador {
+
+    private final ProyeccionTurnoService proyeccionTurnoService;
+
+    @PostMapping("/transacciones")
+    @Operation(summary = "Recibir transacciones registradas", description = "Aplica un lote de eventos de transacciones al saldo de cada turno. Las entregas repetidas se ignoran")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote aplicado"),
+            @ApiResponse(responseCode = "500", description = "No se pudo aplicar el lote; el publicador debe reintentarlo")
+    })
+    public ResponseEntity<ResultadoEventosDTO> recibirTransacciones(@RequestBody List<EventoTransaccionDTO> eventos) {
+        log.debug("Lote de {} eventos de transacciones recibido", eventos.size());
+        if (eventos.isEmpty()) {
+            return ResponseEntity.ok(new ResultadoEventosDTO(0, 0, 0, 0));
+        }
+        return ResponseEntity.ok(proyeccionTurnoService.aplicar(eventos));
+    }
+}
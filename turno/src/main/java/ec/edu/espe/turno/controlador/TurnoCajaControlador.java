@@ -1,11 +1,20 @@
 package ec.edu.espe.turno.controlador;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.edu.espe.turno.dto.InventarioBilletesDTO;
+import ec.edu.espe.turno.dto.PaginaDTO;
+import ec.edu.espe.turno.dto.ResumenTurnoDTO;
 import ec.edu.espe.turno.dto.TurnoCajaCreacionDTO;
 import ec.edu.espe.turno.dto.TurnoCajaCierreDTO;
 import ec.edu.espe.turno.dto.TurnoCajaDTO;
+import ec.edu.espe.turno.mapper.InventarioBilletesMapper;
+import ec.edu.espe.turno.mapper.ResumenTurnoMapper;
 import ec.edu.espe.turno.mapper.TurnoCajaMapper;
+import ec.edu.espe.turno.modelo.InventarioBilletes;
 import ec.edu.espe.turno.modelo.TurnoCaja;
 import ec.edu.espe.turno.servicio.TurnoCajaService;
+import ec.edu.espe.turno.validacion.ResultadoValidacion;
+import ec.edu.espe.turno.validacion.ValidadorSolicitudes;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -13,13 +22,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/turnos")
@@ -30,8 +42,12 @@ public class TurnoCajaControlador {
 
     private final TurnoCajaService turnoCajaService;
     private final TurnoCajaMapper turnoCajaMapper;
+    private final ObjectMapper objectMapper;
+    private final ResumenTurnoMapper resumenTurnoMapper;
+    private final InventarioBilletesMapper inventarioBilletesMapper;
+    private final ValidadorSolicitudes validadorSolicitudes;
     
-    private static final Set<Integer> DENOMINACIONES_VALIDAS = Set.of(1, 5, 10, 20, 50, 100);
+    private static final int TAMANIO_MAXIMO_PAGINA = 1000;
 
     @PostMapping("/abrir")
     @Operation(summary = "Abrir turno de caja", description = "Abre un nuevo turno para un cajero en una caja específica")
@@ -44,10 +60,7 @@ public class TurnoCajaControlador {
         log.info("Solicitud para abrir turno: caja={}, cajero={}", dto.getCodigoCaja(), dto.getCodigoCajero());
         
         // Validaciones
-        validarCodigoCaja(dto.getCodigoCaja());
-        validarCodigoCajero(dto.getCodigoCajero());
-        validarMontoInicial(dto.getMontoInicial());
-        validarDenominaciones(dto.getDenominacionesIniciales(), dto.getMontoInicial());
+        validadorSolicitudes.validarApertura(dto).lanzarSiHayErrores();
         
         TurnoCaja turno = turnoCajaService.abrirTurno(dto);
         return ResponseEntity.ok(turnoCajaMapper.toDTO(turno));
@@ -65,9 +78,7 @@ public class TurnoCajaControlador {
         log.info("Solicitud para cerrar turno: {}", dto.getCodigoTurno());
         
         // Validaciones
-        validarCodigoTurno(dto.getCodigoTurno());
-        validarMontoFinal(dto.getMontoFinal());
-        validarDenominaciones(dto.getDenominacionesFinales(), dto.getMontoFinal());
+        validadorSolicitudes.validarCierre(dto).lanzarSiHayErrores();
         
         TurnoCaja turno = turnoCajaService.cerrarTurno(dto);
         return ResponseEntity.ok(turnoCajaMapper.toDTO(turno));
@@ -82,12 +93,48 @@ public class TurnoCajaControlador {
     public ResponseEntity<TurnoCajaDTO> obtenerTurno(@PathVariable String codigoTurno) {
         log.info("Solicitud para obtener turno: {}", codigoTurno);
         
-        validarCodigoTurno(codigoTurno);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validacion.lanzarSiHayErrores();
         
         TurnoCaja turno = turnoCajaService.obtenerTurno(codigoTurno);
         return ResponseEntity.ok(turnoCajaMapper.toDTO(turno));
     }
 
+    @GetMapping("/{codigoTurno}/resumen")
+    @Operation(summary = "Resumen del turno", description = "Totales y número de transacciones del turno por tipo, calculados en la base de datos")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Resumen obtenido exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Turno no encontrado")
+    })
+    public ResponseEntity<ResumenTurnoDTO> obtenerResumen(@PathVariable String codigoTurno) {
+        log.info("Solicitud para obtener resumen del turno: {}", codigoTurno);
+
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validacion.lanzarSiHayErrores();
+
+        return ResponseEntity.ok(resumenTurnoMapper.toDTO(turnoCajaService.obtenerResumen(codigoTurno)));
+    }
+
+    @GetMapping("/{codigoTurno}/billetes")
+    @Operation(summary = "Billetes en caja", description = "Cantidad de billetes por denominación que debería tener la caja según el inventario acumulado del turno; "
+            + "si los retiros entregaron billetes que la caja no tenía, la diferencia se informa en faltantes")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Inventario obtenido exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Turno no encontrado")
+    })
+    public ResponseEntity<InventarioBilletesDTO> obtenerInventarioBilletes(@PathVariable String codigoTurno) {
+        log.info("Solicitud de inventario de billetes del turno: {}", codigoTurno);
+        
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validacion.lanzarSiHayErrores();
+        
+        InventarioBilletes inventario = turnoCajaService.obtenerInventarioBilletes(codigoTurno);
+        return ResponseEntity.ok(inventarioBilletesMapper.toDTO(inventario));
+    }
+
     @GetMapping("/caja/{codigoCaja}/cajero/{codigoCajero}")
     @Operation(summary = "Listar turnos por cajero", description = "Lista todos los turnos de un cajero en una caja específica")
     @ApiResponses({
@@ -99,8 +146,10 @@ public class TurnoCajaControlador {
         
         log.info("Solicitud para listar turnos: caja={}, cajero={}", codigoCaja, codigoCajero);
         
-        validarCodigoCaja(codigoCaja);
-        validarCodigoCajero(codigoCajero);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoCaja(codigoCaja, validacion);
+        validadorSolicitudes.validarCodigoCajero(codigoCajero, validacion);
+        validacion.lanzarSiHayErrores();
         
         List<TurnoCaja> turnos = turnoCajaService.listarTurnosPorCajero(codigoCaja, codigoCajero);
         List<TurnoCajaDTO> turnosDTO = turnos.stream()
@@ -110,76 +159,72 @@ public class TurnoCajaControlador {
         return ResponseEntity.ok(turnosDTO);
     }
 
-    // ================= VALIDACIONES =================
+    @GetMapping("/caja/{codigoCaja}/cajero/{codigoCajero}/pagina")
+    @Operation(summary = "Listar turnos por cajero (paginado)", description = "Lista los turnos de un cajero en una caja por páginas usando el cursor de la página anterior")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos")
+    })
+    public ResponseEntity<PaginaDTO<TurnoCajaDTO>> listarTurnosPorCajeroPaginado(
+            @PathVariable String codigoCaja,
+            @PathVariable String codigoCajero,
+            @RequestParam(required = false) String despuesDe,
+            @RequestParam(defaultValue = "100") int tamanio) {
 
-    private void validarCodigoCaja(String codigoCaja) {
-        if (codigoCaja == null || codigoCaja.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de caja es requerido");
-        }
-        if (!codigoCaja.matches("^CAJ\\d{2}$")) {
-            throw new IllegalArgumentException("Formato de código caja inválido. Use: CAJ01, CAJ02, etc.");
-        }
-    }
+        log.info("Solicitud para listar página de turnos: caja={}, cajero={}, despuesDe={}, tamanio={}", codigoCaja, codigoCajero, despuesDe, tamanio);
 
-    private void validarCodigoCajero(String codigoCajero) {
-        if (codigoCajero == null || codigoCajero.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de cajero es requerido");
-        }
-        if (!codigoCajero.matches("^USU\\d{2}$")) {
-            throw new IllegalArgumentException("Formato de código cajero inválido. Use: USU01, USU02, etc.");
-        }
-    }
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoCaja(codigoCaja, validacion);
+        validadorSolicitudes.validarCodigoCajero(codigoCajero, validacion);
+        validarPaginacion(validacion, despuesDe, tamanio);
+        validacion.lanzarSiHayErrores();
 
-    private void validarCodigoTurno(String codigoTurno) {
-        if (codigoTurno == null || codigoTurno.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de turno es requerido");
-        }
-        if (!codigoTurno.matches("^CAJ\\d{2}-USU\\d{2}-\\d{8}$")) {
-            throw new IllegalArgumentException("Formato de código turno inválido. Use: CAJ01-USU01-20250109");
-        }
-    }
+        List<TurnoCaja> turnos = turnoCajaService.listarTurnosPorCajero(codigoCaja, codigoCajero, despuesDe, tamanio);
+        List<TurnoCajaDTO> turnosDTO = turnos.stream()
+                .map(turnoCajaMapper::toDTO)
+                .collect(Collectors.toList());
+        String siguienteCursor = turnos.size() < tamanio ? null : turnos.get(turnos.size() - 1).getId();
 
-    private void validarMontoInicial(BigDecimal montoInicial) {
-        if (montoInicial == null || montoInicial.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Monto inicial debe ser mayor a 0");
-        }
+        return ResponseEntity.ok(new PaginaDTO<>(turnosDTO, siguienteCursor));
     }
 
-    private void validarMontoFinal(BigDecimal montoFinal) {
-        if (montoFinal == null || montoFinal.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Monto final debe ser mayor a 0");
-        }
-    }
+    @GetMapping(value = "/caja/{codigoCaja}/cajero/{codigoCajero}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Transmitir turnos por cajero", description = "Devuelve todos los turnos de un cajero en una caja como NDJSON, leyendo de un cursor de la base de datos")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transmisión iniciada")
+    })
+    public ResponseEntity<StreamingResponseBody> streamTurnosPorCajero(
+            @PathVariable String codigoCaja,
+            @PathVariable String codigoCajero) {
 
-    private void validarDenominaciones(List<ec.edu.espe.turno.dto.DenominacionDTO> denominaciones, BigDecimal montoTotal) {
-        if (denominaciones == null || denominaciones.isEmpty()) {
-            throw new IllegalArgumentException("Las denominaciones son requeridas");
-        }
+        log.info("Solicitud para transmitir turnos: caja={}, cajero={}", codigoCaja, codigoCajero);
 
-        BigDecimal suma = BigDecimal.ZERO;
-        for (ec.edu.espe.turno.dto.DenominacionDTO den : denominaciones) {
-            if (!DENOMINACIONES_VALIDAS.contains(den.getBillete())) {
-                throw new IllegalArgumentException("Denominación no válida: " + den.getBillete() + ". Use: 1, 5, 10, 20, 50, 100");
-            }
-            if (den.getCantidad() == null || den.getCantidad() <= 0) {
-                throw new IllegalArgumentException("Cantidad debe ser mayor a 0 para denominación: " + den.getBillete());
-            }
-            if (den.getMonto() == null || den.getMonto().compareTo(BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Monto debe ser mayor a 0 para denominación: " + den.getBillete());
-            }
-            
-            // Calcular el monto esperado: billete * cantidad
-            BigDecimal montoEsperado = BigDecimal.valueOf(den.getBillete()).multiply(BigDecimal.valueOf(den.getCantidad()));
-            if (montoEsperado.compareTo(den.getMonto()) != 0) {
-                throw new IllegalArgumentException("Monto no coincide con billete * cantidad para denominación: " + den.getBillete() + 
-                    ". Esperado: " + montoEsperado + ", Recibido: " + den.getMonto());
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoCaja(codigoCaja, validacion);
+        validadorSolicitudes.validarCodigoCajero(codigoCajero, validacion);
+        validacion.lanzarSiHayErrores();
+
+        StreamingResponseBody cuerpo = salida -> {
+            try (Stream<TurnoCaja> turnos = turnoCajaService.streamTurnosPorCajero(codigoCaja, codigoCajero)) {
+                Iterator<TurnoCaja> iterador = turnos.iterator();
+                while (iterador.hasNext()) {
+                    salida.write(objectMapper.writeValueAsBytes(turnoCajaMapper.toDTO(iterador.next())));
+                    salida.write('\n');
+                }
             }
-            
-            suma = suma.add(den.getMonto());
-        }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
 
-        if (suma.compareTo(montoTotal) != 0) {
-            throw new IllegalArgumentException("La suma de denominaciones (" + suma + ") no coincide con el monto total (" + montoTotal + ")");
+    // ================= VALIDACIONES =================
+
+    private void validarPaginacion(ResultadoValidacion resultado, String despuesDe, int tamanio) {
+        if (tamanio <= 0 || tamanio > TAMANIO_MAXIMO_PAGINA) {
+            resultado.agregarError("Tamaño de página inválido. Use un valor entre 1 y " + TAMANIO_MAXIMO_PAGINA);
+        }
+        if (despuesDe != null && !ObjectId.isValid(despuesDe)) {
+            resultado.agregarError("Cursor de paginación inválido: " + despuesDe);
         }
     }
-} 
\ No newline at end of file
+}
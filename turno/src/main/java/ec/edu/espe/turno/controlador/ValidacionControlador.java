@@ -1,9 +1,13 @@
 package ec.edu.espe.turno.controlador;
 
+import ec.edu.espe.turno.dto.ResultadoValidacionDTO;
 import ec.edu.espe.turno.dto.TurnoCajaDTO;
+import ec.edu.espe.turno.excepcion.TurnoNoEncontradoException;
 import ec.edu.espe.turno.mapper.TurnoCajaMapper;
 import ec.edu.espe.turno.modelo.TurnoCaja;
 import ec.edu.espe.turno.servicio.TurnoCajaService;
+import ec.edu.espe.turno.validacion.ResultadoValidacion;
+import ec.edu.espe.turno.validacion.ValidadorSolicitudes;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -22,6 +26,7 @@ public class ValidacionControlador {
 
     private final TurnoCajaService turnoCajaService;
     private final TurnoCajaMapper turnoCajaMapper;
+    private final ValidadorSolicitudes validadorSolicitudes;
 
     @GetMapping("/turno/{codigoTurno}")
     @Operation(summary = "Validar estado de turno", description = "Valida si un turno existe y está abierto para procesar transacciones")
@@ -33,9 +38,11 @@ public class ValidacionControlador {
     public ResponseEntity<TurnoCajaDTO> validarTurno(@PathVariable String codigoTurno) {
         log.info("Validación de turno para transacciones: {}", codigoTurno);
         
-        validarCodigoTurno(codigoTurno);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion);
+        validacion.lanzarSiHayErrores();
         
-        TurnoCaja turno = turnoCajaService.obtenerTurno(codigoTurno);
+        TurnoCaja turno = turnoCajaService.obtenerTurnoVigente(codigoTurno);
         
         if (!"ABIERTO".equals(turno.getEstado())) {
             return ResponseEntity.status(409).build();
@@ -53,7 +60,9 @@ public class ValidacionControlador {
     public ResponseEntity<Boolean> validarCaja(@PathVariable String codigoCaja) {
         log.info("Validación de caja: {}", codigoCaja);
         
-        validarCodigoCaja(codigoCaja);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoCaja(codigoCaja, validacion);
+        validacion.lanzarSiHayErrores();
         
         // Por ahora solo validamos formato, en producción se consultaría BD de cajas
         return ResponseEntity.ok(true);
@@ -68,7 +77,9 @@ public class ValidacionControlador {
     public ResponseEntity<Boolean> validarCajero(@PathVariable String codigoCajero) {
         log.info("Validación de cajero: {}", codigoCajero);
         
-        validarCodigoCajero(codigoCajero);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoCajero(codigoCajero, validacion);
+        validacion.lanzarSiHayErrores();
         
         // Por ahora solo validamos formato, en producción se consultaría BD de empleados
         return ResponseEntity.ok(true);
@@ -86,39 +97,56 @@ public class ValidacionControlador {
         
         log.info("Validación de cajero en caja: caja={}, cajero={}", codigoCaja, codigoCajero);
         
-        validarCodigoCaja(codigoCaja);
-        validarCodigoCajero(codigoCajero);
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        validadorSolicitudes.validarCodigoCaja(codigoCaja, validacion);
+        validadorSolicitudes.validarCodigoCajero(codigoCajero, validacion);
+        validacion.lanzarSiHayErrores();
         
         // Por ahora solo validamos formato, en producción se consultaría BD de autorizaciones
         return ResponseEntity.ok(true);
     }
 
-    // ================= VALIDACIONES =================
+    @GetMapping("/transaccion")
+    @Operation(summary = "Validar transacción", description = "Valida en una sola llamada la caja, el cajero, su autorización en la caja y que el turno esté abierto")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Resultado de la validación con el detalle de cada verificación")
+    })
+    public ResponseEntity<ResultadoValidacionDTO> validarTransaccion(
+            @RequestParam String codigoCaja,
+            @RequestParam String codigoCajero,
+            @RequestParam String codigoTurno) {
 
-    private void validarCodigoCaja(String codigoCaja) {
-        if (codigoCaja == null || codigoCaja.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de caja es requerido");
-        }
-        if (!codigoCaja.matches("^CAJ\\d{2}$")) {
-            throw new IllegalArgumentException("Formato de código caja inválido. Use: CAJ01, CAJ02, etc.");
-        }
-    }
+        log.info("Validación compuesta: caja={}, cajero={}, turno={}", codigoCaja, codigoCajero, codigoTurno);
 
-    private void validarCodigoCajero(String codigoCajero) {
-        if (codigoCajero == null || codigoCajero.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de cajero es requerido");
-        }
-        if (!codigoCajero.matches("^USU\\d{2}$")) {
-            throw new IllegalArgumentException("Formato de código cajero inválido. Use: USU01, USU02, etc.");
-        }
-    }
+        ResultadoValidacionDTO resultado = new ResultadoValidacionDTO();
+        resultado.setCodigoCaja(codigoCaja);
+        resultado.setCodigoCajero(codigoCajero);
+        resultado.setCodigoTurno(codigoTurno);
+
+        ResultadoValidacion validacion = new ResultadoValidacion();
+        resultado.setCajaValida(validadorSolicitudes.validarCodigoCaja(codigoCaja, validacion));
+        resultado.setCajeroValido(validadorSolicitudes.validarCodigoCajero(codigoCajero, validacion));
 
-    private void validarCodigoTurno(String codigoTurno) {
-        if (codigoTurno == null || codigoTurno.trim().isEmpty()) {
-            throw new IllegalArgumentException("Código de turno es requerido");
+        // Por ahora la autorización depende solo de que caja y cajero sean válidos
+        resultado.setCajeroAutorizado(resultado.isCajaValida() && resultado.isCajeroValido());
+        if (!resultado.isCajeroAutorizado()) {
+            validacion.agregarError("Cajero no autorizado en caja: " + codigoCajero + " - " + codigoCaja);
         }
-        if (!codigoTurno.matches("^CAJ\\d{2}-USU\\d{2}-\\d{8}$")) {
-            throw new IllegalArgumentException("Formato de código turno inválido. Use: CAJ01-USU01-20250109");
+
+        if (validadorSolicitudes.validarCodigoTurno(codigoTurno, validacion)) {
+            try {
+                TurnoCaja turno = turnoCajaService.obtenerTurnoVigente(codigoTurno);
+                resultado.setTurnoEncontrado(true);
+                resultado.setTurnoAbierto("ABIERTO".equals(turno.getEstado()));
+                if (!resultado.isTurnoAbierto()) {
+                    validacion.agregarError("El turno no está abierto: " + codigoTurno);
+                }
+            } catch (TurnoNoEncontradoException e) {
+                validacion.agregarError("Turno no encontrado: " + codigoTurno);
+            }
         }
+        resultado.getErrores().addAll(validacion.getErrores());
+
+        return ResponseEntity.ok(resultado);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package ec.edu.espe.turno.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventarioBilletesDTO {
+
+    private String codigoTurno;
+    private List<DenominacionDTO> billetes;
+    private BigDecimal montoTotal;
+    private List<DenominacionDTO> faltantes;
+    private BigDecimal montoFaltante;
+}
@@ -0,0 +1,18 @@
+package ec.edu.espe.turno.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoEventosDTO {
+
+    private int recibidos;
+    private int aplicados;
+    // Eventos ya aplicados en una entrega anterior
+    private int duplicados;
+    // Eventos de turnos que ya no admiten movimientos: se guardan apartados, sin sumar al saldo
+    private int tardios;
+}
@@ -0,0 +1,21 @@
+package ec.edu.espe.turno.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenTurnoDTO {
+
+    private String codigoTurno;
+    private String estado;
+    private BigDecimal montoInicial;
+    private BigDecimal montoEsperado;
+    private Long cantidadTransacciones;
+    private List<TotalTipoTransaccionDTO> totales;
+}
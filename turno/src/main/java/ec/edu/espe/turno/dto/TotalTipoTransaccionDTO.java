@@ -0,0 +1,17 @@
+package ec.edu.espe.turno.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalTipoTransaccionDTO {
+
+    private String tipoTransaccion;
+    private BigDecimal montoTotal;
+    private Long cantidad;
+}
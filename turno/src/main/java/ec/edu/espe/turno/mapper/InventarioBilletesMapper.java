@@ -0,0 +1,11 @@
+package ec.edu.espe.turno.mapper;
+
+import ec.edu.espe.turno.dto.InventarioBilletesDTO;
+import ec.edu.espe.turno.modelo.InventarioBilletes;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring", uses = {DenominacionMapper.class})
+public interface InventarioBilletesMapper {
+
+    InventarioBilletesDTO toDTO(InventarioBilletes inventarioBilletes);
+}
@@ -0,0 +1,16 @@
+package ec.edu.espe.turno.mapper;
+
+import ec.edu.espe.turno.dto.EventoTransaccionDTO;
+import ec.edu.espe.turno.modelo.MovimientoTurno;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = {DenominacionMapper.class})
+public interface MovimientoTurnoMapper {
+
+    // fechaRecepcion y tardio los completa ProyeccionTurnoService al registrar el movimiento
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "fechaRecepcion", ignore = true)
+    @Mapping(target = "tardio", ignore = true)
+    MovimientoTurno toEntity(EventoTransaccionDTO evento);
+}
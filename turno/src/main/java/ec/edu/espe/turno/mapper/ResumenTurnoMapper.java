@@ -0,0 +1,15 @@
+package ec.edu.espe.turno.mapper;
+
+import ec.edu.espe.turno.dto.ResumenTurnoDTO;
+import ec.edu.espe.turno.dto.TotalTipoTransaccionDTO;
+import ec.edu.espe.turno.modelo.ResumenTurno;
+import ec.edu.espe.turno.modelo.TotalTipoTransaccion;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ResumenTurnoMapper {
+
+    ResumenTurnoDTO toDTO(ResumenTurno resumenTurno);
+
+    TotalTipoTransaccionDTO toDTO(TotalTipoTransaccion totalTipoTransaccion);
+}
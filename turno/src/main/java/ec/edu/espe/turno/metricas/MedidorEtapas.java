@@ -0,0 +1,72 @@
+package ec.edu.espe.turno.metricas;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Tiempos de las operaciones principales y de cada una de sus etapas. Las etapas se registran en
+// turnos.etapa y la operación completa en turnos.operacion, con las etiquetas operacion,
+// etapa (solo en las etapas) y resultado. Ambos publican p50/p95/p99 y el histograma que Prometheus
+// usa para calcular percentiles entre instancias.
+@Component
+public class MedidorEtapas {
+
+    public static final String METRICA_ETAPA = "turnos.etapa";
+    public static final String METRICA_OPERACION = "turnos.operacion";
+
+    public static final String EXITO = "exito";
+    public static final String ERROR = "error";
+
+    private final Meter.MeterProvider<Timer> etapas;
+    private final Meter.MeterProvider<Timer> operaciones;
+
+    public MedidorEtapas(MeterRegistry meterRegistry) {
+        this.etapas = Timer.builder(METRICA_ETAPA)
+                .description("Duración de cada etapa de una operación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.operaciones = Timer.builder(METRICA_OPERACION)
+                .description("Duración total de una operación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    public <T> T medirOperacion(String operacion, Supplier<T> accion) {
+        long inicio = System.nanoTime();
+        String resultado = ERROR;
+        try {
+            T valor = accion.get();
+            resultado = EXITO;
+            return valor;
+        } finally {
+            operaciones.withTags("operacion", operacion, "resultado", resultado)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <T> T medir(String operacion, String etapa, Supplier<T> accion) {
+        long inicio = System.nanoTime();
+        String resultado = ERROR;
+        try {
+            T valor = accion.get();
+            resultado = EXITO;
+            return valor;
+        } finally {
+            etapas.withTags("operacion", operacion, "etapa", etapa, "resultado", resultado)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void medir(String operacion, String etapa, Runnable accion) {
+        medir(operacion, etapa, () -> {
+            accion.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package ec.edu.espe.turno.modelo;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Billetes que debería tener la caja: denominaciones iniciales más el efecto acumulado de las transacciones,
+// nunca negativos; lo que los retiros entregaron de más queda en faltantes
+public class InventarioBilletes {
+
+    private String codigoTurno;
+    private List<Denominacion> billetes;
+    private BigDecimal montoTotal;
+    // Billetes que los retiros entregaron sin haberlos en caja, por denominación (vacío si no hay faltantes)
+    private List<Denominacion> faltantes;
+    private BigDecimal montoFaltante;
+}
@@ -0,0 +1,50 @@
+package ec.edu.espe.turno.modelo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "movimientos_turno")
+@CompoundIndexes({
+    // Agregación de totales del turno por tipo
+    @CompoundIndex(name = "turno_tipo", def = "{'codigoTurno': 1, 'tipoTransaccion': 1}")
+})
+// Copia local de cada transacción recibida por eventos; el índice único sobre codigoTransaccion
+// hace que una entrega repetida no se aplique dos veces a la proyección
+public class MovimientoTurno {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String codigoTransaccion;
+
+    private String codigoTurno;
+    private String tipoTransaccion;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal montoTotal;
+
+    private List<Denominacion> denominaciones;
+    private LocalDateTime fechaTransaccion;
+    private LocalDateTime fechaRecepcion;
+
+    // Llegó cuando el turno ya no admitía movimientos (cerrado o inexistente): se conserva para revisión,
+    // pero no suma al saldo ni a los totales del turno
+    private Boolean tardio;
+}
@@ -0,0 +1,38 @@
+package ec.edu.espe.turno.modelo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "saldos_turno")
+// Efecto acumulado de las transacciones de un turno, proyectado a partir de los eventos de transacciones
+public class SaldoTurno {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String codigoTurno;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal montoNeto;
+
+    private Long cantidadTransacciones;
+
+    // Cantidad neta de billetes movidos por denominación, en la posición que indica Billetes.indice
+    private long[] billetes;
+
+    private LocalDateTime ultimaActualizacion;
+}
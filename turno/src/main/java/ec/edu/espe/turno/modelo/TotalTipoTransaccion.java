@@ -0,0 +1,18 @@
+package ec.edu.espe.turno.modelo;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Resultado de la agregación de transacciones de un turno por tipo
+public class TotalTipoTransaccion {
+
+    private String tipoTransaccion;
+    private BigDecimal montoTotal;
+    private Long cantidad;
+}
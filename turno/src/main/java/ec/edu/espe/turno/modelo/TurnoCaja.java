@@ -5,6 +5,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -16,8 +19,21 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "turnos_caja")
+@CompoundIndexes({
+    // findByCodigoCajaAndCodigoCajero[AndEstado[AndInicioTurnoBetween]]
+    @CompoundIndex(name = "caja_cajero_estado_inicio", def = "{'codigoCaja': 1, 'codigoCajero': 1, 'estado': 1, 'inicioTurno': 1}"),
+    // Paginación y streaming por caja y cajero ordenados por _id
+    @CompoundIndex(name = "caja_cajero_id", def = "{'codigoCaja': 1, 'codigoCajero': 1, '_id': 1}"),
+    // findByEstado
+    @CompoundIndex(name = "estado_inicio", def = "{'estado': 1, 'inicioTurno': 1}")
+})
 public class TurnoCaja {
 
+    public static final String ABIERTO = "ABIERTO";
+    // Cierre en curso: ya no admite transacciones nuevas mientras se validan los montos finales
+    public static final String CERRANDO = "CERRANDO";
+    public static final String CERRADO = "CERRADO";
+
     @Id
     private String id;
     
@@ -26,11 +42,24 @@ public class TurnoCaja {
     
     private String codigoCaja;
     private String codigoCajero;
+
+    @Indexed
     private LocalDateTime inicioTurno;
+
     private BigDecimal montoInicial;
     private LocalDateTime finTurno;
     private BigDecimal montoFinal;
-    private String estado; // ABIERTO, CERRADO
+    private String estado; // ABIERTO, CERRANDO, CERRADO
     private List<Denominacion> denominacionesIniciales;
+
+    // Bloqueo optimista: save() solo escribe si la versión en Mongo sigue siendo la leída
+    @Version
     private Long version;
+
+    // Momento en que el turno pasó a CERRANDO; permite retomar un cierre abandonado
+    private LocalDateTime inicioCierre;
+
+    // Movimientos aplicados al saldo; lo incrementa la proyección en la misma transacción que el saldo y el cierre
+    // se condiciona a él, así no se cierra con un saldo validado antes de que llegara otro movimiento
+    private Long movimientosAplicados;
 } 
\ No newline at end of file
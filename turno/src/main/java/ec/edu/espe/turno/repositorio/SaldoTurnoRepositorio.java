@@ -0,0 +1,13 @@
+package ec.edu.espe.turno.repositorio;
+
+import ec.edu.espe.turno.modelo.SaldoTurno;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SaldoTurnoRepositorio extends MongoRepository<SaldoTurno, String> {
+
+    Optional<SaldoTurno> findByCodigoTurno(String codigoTurno);
+}
@@ -0,0 +1,37 @@
+package ec.edu.espe.turno.repositorio;
+
+import ec.edu.espe.turno.modelo.TotalTipoTransaccion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Suma y cuenta los movimientos de un turno por tipo dentro de Mongo, sin traer los documentos a la JVM.
+// Lee la copia local que llega por eventos, no la colección del microservicio de transacciones
+@Repository
+@RequiredArgsConstructor
+public class TotalesTransaccionRepositorio {
+
+    private static final String COLECCION_MOVIMIENTOS = "movimientos_turno";
+
+    private final MongoTemplate mongoTemplate;
+
+    public List<TotalTipoTransaccion> totalesPorTipo(String codigoTurno) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            // Los movimientos tardíos no forman parte del saldo del turno
+            Aggregation.match(Criteria.where("codigoTurno").is(codigoTurno).and("tardio").ne(true)),
+            // MovimientoTurno guarda montoTotal siempre como Decimal128
+            Aggregation.group("tipoTransaccion")
+                .sum("montoTotal").as("montoTotal")
+                .count().as("cantidad"),
+            Aggregation.project("montoTotal", "cantidad")
+                .and("tipoTransaccion").previousOperation()
+        );
+
+        return mongoTemplate.aggregate(aggregation, COLECCION_MOVIMIENTOS, TotalTipoTransaccion.class)
+            .getMappedResults();
+    }
+}
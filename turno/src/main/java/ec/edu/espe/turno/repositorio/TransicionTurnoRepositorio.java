@@ -0,0 +1,93 @@
+package ec.edu.espe.turno.repositorio;
+
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Cambios de estado del turno resueltos en Mongo con una sola operación atómica. La apertura la decide el
+// índice único de codigoTurno (caja-cajero-fecha); el cierre exige que estado y versión sigan siendo los leídos
+@Repository
+@RequiredArgsConstructor
+public class TransicionTurnoRepositorio {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Inserta el turno si no existe otro con el mismo codigoTurno. Devuelve vacío si quedó insertado
+     * (con el id y la versión ya asignados en el objeto recibido) o el turno existente, sin modificarlo.
+     */
+    public Optional<TurnoCaja> abrirSiNoExiste(TurnoCaja turno) {
+        if (turno.getId() == null) {
+            turno.setId(new ObjectId().toHexString());
+        }
+        Query query = Query.query(Criteria.where("codigoTurno").is(turno.getCodigoTurno()));
+        // $setOnInsert: si el turno ya existe la operación no cambia nada y devuelve el documento actual
+        Update update = new Update()
+            .setOnInsert("_id", new ObjectId(turno.getId()))
+            .setOnInsert("codigoCaja", turno.getCodigoCaja())
+            .setOnInsert("codigoCajero", turno.getCodigoCajero())
+            .setOnInsert("inicioTurno", turno.getInicioTurno())
+            .setOnInsert("montoInicial", turno.getMontoInicial())
+            .setOnInsert("estado", turno.getEstado())
+            .setOnInsert("denominacionesIniciales", turno.getDenominacionesIniciales())
+            .setOnInsert("version", turno.getVersion());
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().upsert(true).returnNew(false), TurnoCaja.class));
+    }
+
+    /**
+     * Pasa el turno a CERRANDO si su estado y versión siguen siendo los leídos. Mientras está en CERRANDO las
+     * validaciones lo tratan como no abierto, así que no entran transacciones nuevas. Vacío si hubo conflicto.
+     */
+    public Optional<TurnoCaja> congelar(TurnoCaja turno, LocalDateTime inicioCierre) {
+        Update update = new Update()
+            .set("estado", TurnoCaja.CERRANDO)
+            .set("inicioCierre", inicioCierre)
+            .inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(versionLeida(turno), update,
+            FindAndModifyOptions.options().returnNew(true), TurnoCaja.class));
+    }
+
+    // Devuelve a ABIERTO un turno congelado cuyo cierre no pasó las validaciones
+    public boolean reabrir(TurnoCaja congelado) {
+        Update update = new Update()
+            .set("estado", TurnoCaja.ABIERTO)
+            .unset("inicioCierre")
+            .inc("version", 1);
+        return mongoTemplate.updateFirst(versionLeida(congelado), update, TurnoCaja.class).getModifiedCount() > 0;
+    }
+
+    /**
+     * Completa el cierre de un turno congelado si, además de estado y versión, sigue teniendo los movimientos
+     * aplicados que se leyeron al validar su saldo. Vacío si otra solicitud lo tomó o si llegaron movimientos
+     * entretanto.
+     */
+    public Optional<TurnoCaja> cerrar(TurnoCaja validado, BigDecimal montoFinal, LocalDateTime finTurno) {
+        Query query = versionLeida(validado)
+            .addCriteria(Criteria.where("movimientosAplicados").is(validado.getMovimientosAplicados()));
+        Update update = new Update()
+            .set("estado", TurnoCaja.CERRADO)
+            .set("montoFinal", montoFinal)
+            .set("finTurno", finTurno)
+            .inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), TurnoCaja.class));
+    }
+
+    private Query versionLeida(TurnoCaja turno) {
+        return Query.query(Criteria.where("codigoTurno").is(turno.getCodigoTurno())
+            .and("estado").is(turno.getEstado())
+            .and("version").is(turno.getVersion()));
+    }
+}
@@ -1,12 +1,14 @@
 package ec.edu.espe.turno.repositorio;
 
 import ec.edu.espe.turno.modelo.TurnoCaja;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TurnoCajaRepositorio extends MongoRepository<TurnoCaja, String> {
@@ -23,4 +25,13 @@ public interface TurnoCajaRepositorio extends MongoRepository<TurnoCaja, String>
     
     Optional<TurnoCaja> findByCodigoCajaAndCodigoCajeroAndEstadoAndInicioTurnoBetween(
         String codigoCaja, String codigoCajero, String estado, LocalDateTime fechaInicio, LocalDateTime fechaFin);
+
+    // Paginación por cursor (keyset) sobre el _id
+    List<TurnoCaja> findByCodigoCajaAndCodigoCajeroOrderByIdAsc(String codigoCaja, String codigoCajero, Limit limit);
+
+    List<TurnoCaja> findByCodigoCajaAndCodigoCajeroAndIdGreaterThanOrderByIdAsc(
+        String codigoCaja, String codigoCajero, String id, Limit limit);
+
+    // Respaldado por un cursor de Mongo; quien lo consume debe cerrarlo
+    Stream<TurnoCaja> streamByCodigoCajaAndCodigoCajeroOrderByIdAsc(String codigoCaja, String codigoCajero);
 } 
\ No newline at end of file
@@ -0,0 +1,133 @@
+package ec.edu.espe.turno.servicio;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Sigue el change stream de turnos_caja para que TurnoCajaCache refleje los cambios de cualquier instancia.
+// Al perder la conexión la caché se vacía y deja de usarse hasta volver a abrir el change stream, así que no
+// hace falta reanudar desde el último evento. Requiere Mongo en réplica (docker-compose lo inicia así).
+@Component
+@Slf4j
+public class CambiosTurnoListener {
+
+    // Código de Mongo cuando el servidor no es una réplica
+    private static final int CHANGE_STREAM_NO_SOPORTADO = 40573;
+
+    private final MongoTemplate mongoTemplate;
+    private final TurnoCajaCache turnoCajaCache;
+    private final boolean habilitado;
+    private final Duration esperaReintento;
+
+    private Thread hilo;
+    private volatile boolean activo;
+
+    public CambiosTurnoListener(
+            MongoTemplate mongoTemplate,
+            TurnoCajaCache turnoCajaCache,
+            @Value("${turno.cache.cambios.habilitado:true}") boolean habilitado,
+            @Value("${turno.cache.cambios.espera-reintento:5s}") Duration esperaReintento) {
+        this.mongoTemplate = mongoTemplate;
+        this.turnoCajaCache = turnoCajaCache;
+        this.habilitado = habilitado;
+        this.esperaReintento = esperaReintento;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) {
+            log.info("Change stream de turnos deshabilitado: la caché de turnos solo se actualiza en esta instancia");
+            return;
+        }
+        activo = true;
+        hilo = Thread.ofPlatform().name("cambios-turnos").daemon().start(this::escuchar);
+    }
+
+    @PreDestroy
+    void detener() {
+        activo = false;
+        if (hilo != null) {
+            try {
+                hilo.join(Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void escuchar() {
+        while (activo) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = abrir()) {
+                turnoCajaCache.marcarSincronizada(true);
+                while (activo) {
+                    ChangeStreamDocument<Document> cambio = cursor.tryNext();
+                    if (cambio != null) {
+                        aplicar(cambio);
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_NO_SOPORTADO) {
+                    log.warn("Mongo no corre como réplica y no admite change streams; la caché de turnos no se usará");
+                    turnoCajaCache.marcarSincronizada(false);
+                    return;
+                }
+                desconectado(e);
+            } catch (RuntimeException e) {
+                desconectado(e);
+            }
+        }
+        turnoCajaCache.marcarSincronizada(false);
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrir() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(TurnoCaja.class))
+                // Cada transición de estado incrementa la versión; las actualizaciones sin ella son el contador de
+                // movimientos aplicados que escribe la proyección con cada lote y no cambian el estado
+                .watch(List.of(Aggregates.match(Filters.or(
+                        Filters.in("operationType", "insert", "replace", "delete"),
+                        Filters.and(Filters.eq("operationType", "update"),
+                                Filters.exists("updateDescription.updatedFields.version"))))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .cursor();
+    }
+
+    private void aplicar(ChangeStreamDocument<Document> cambio) {
+        if (cambio.getOperationType() == OperationType.DELETE || cambio.getFullDocument() == null) {
+            // El evento solo trae el _id, no el codigoTurno
+            turnoCajaCache.invalidarTodo();
+            return;
+        }
+        turnoCajaCache.actualizar(mongoTemplate.getConverter().read(TurnoCaja.class, cambio.getFullDocument()));
+    }
+
+    private void desconectado(RuntimeException e) {
+        turnoCajaCache.marcarSincronizada(false);
+        if (!activo) {
+            return;
+        }
+        log.warn("Se perdió el change stream de turnos_caja, se reintentará en {}: {}", esperaReintento, e.getMessage());
+        try {
+            Thread.sleep(esperaReintento.toMillis());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            activo = false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ec.edu.espe.turno.servicio;
+
+import ec.edu.espe.turno.excepcion.ActualizarTurnoException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificacionTransaccionService {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${transaccion.service.url:http://localhost:8084}")
+    private String transaccionServiceUrl;
+
+    public void notificarTurnoCerrado(String codigoTurno) {
+        log.info("Notificando cierre de turno al microservicio de transacciones: {}", codigoTurno);
+
+        try {
+            restTemplate.delete(transaccionServiceUrl + "/api/cache/turnos/{codigoTurno}", codigoTurno);
+        } catch (Exception e) {
+            // El cierre ya quedó registrado; la caché remota expira por TTL
+            log.warn("No se pudo invalidar el turno {} en transacciones: {}", codigoTurno, e.getMessage());
+        }
+    }
+
+    // A diferencia de la invalidación, un fallo aquí impide el cierre: sin estos eventos el saldo del turno
+    // quedaría incompleto
+    public void publicarEventosPendientes(String codigoTurno) {
+        log.info("Solicitando los eventos pendientes del turno al microservicio de transacciones: {}", codigoTurno);
+
+        try {
+            restTemplate.postForLocation(transaccionServiceUrl + "/api/eventos/turnos/{codigoTurno}/publicar", null, codigoTurno);
+        } catch (Exception e) {
+            throw new ActualizarTurnoException("TurnoCaja", "No se pudieron aplicar las transacciones pendientes del turno "
+                + codigoTurno + ", intente cerrar nuevamente: " + e.getMessage());
+        }
+    }
+}
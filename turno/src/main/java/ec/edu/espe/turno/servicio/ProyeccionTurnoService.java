@@ -0,0 +1,271 @@
+package ec.edu.espe.turno.servicio;
+
+import ec.edu.espe.turno.dto.EventoTransaccionDTO;
+import ec.edu.espe.turno.dto.ResultadoEventosDTO;
+import ec.edu.espe.turno.mapper.MovimientoTurnoMapper;
+import ec.edu.espe.turno.modelo.Denominacion;
+import ec.edu.espe.turno.modelo.MovimientoTurno;
+import ec.edu.espe.turno.modelo.SaldoTurno;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import ec.edu.espe.turno.validacion.Billetes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Aplica los eventos de transacciones registradas a la proyección local del turno: guarda cada movimiento
+// en movimientos_turno y acumula su efecto en saldos_turno. Ambas escrituras van en una transacción de Mongo,
+// así que un lote queda aplicado completo o no queda; una entrega repetida encuentra sus movimientos ya
+// registrados (índice único de codigoTransaccion) y no vuelve a sumar. Los eventos de un turno que ya no está
+// ABIERTO ni CERRANDO se guardan marcados como tardíos, sin tocar su saldo.
+@Service
+@Slf4j
+public class ProyeccionTurnoService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MovimientoTurnoMapper movimientoTurnoMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int intentos;
+
+    private final Counter tardios;
+
+    public ProyeccionTurnoService(
+            MongoTemplate mongoTemplate,
+            MovimientoTurnoMapper movimientoTurnoMapper,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${turno.eventos.intentos:10}") int intentos) {
+        this.mongoTemplate = mongoTemplate;
+        this.movimientoTurnoMapper = movimientoTurnoMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.intentos = intentos;
+
+        this.tardios = Counter.builder("turnos.eventos.tardios")
+                .description("Eventos de transacciones recibidos para turnos cerrados o inexistentes, apartados sin sumar al saldo")
+                .register(meterRegistry);
+    }
+
+    // Depósitos y ahorros suman, retiros restan
+    public static int signoEnSaldo(String tipoTransaccion) {
+        if ("DEPOSITO".equalsIgnoreCase(tipoTransaccion) || "AHORRO".equalsIgnoreCase(tipoTransaccion)) {
+            return 1;
+        } else if ("RETIRO".equalsIgnoreCase(tipoTransaccion)) {
+            return -1;
+        }
+        return 0;
+    }
+
+    public static BigDecimal efectoEnSaldo(String tipoTransaccion, BigDecimal montoTotal) {
+        return switch (signoEnSaldo(tipoTransaccion)) {
+            case 1 -> montoTotal;
+            case -1 -> montoTotal.negate();
+            default -> BigDecimal.ZERO;
+        };
+    }
+
+    // Billetes que entran (positivo) o salen (negativo) de la caja, indexados según Billetes.indice
+    public static long[] efectoEnBilletes(String tipoTransaccion, List<Denominacion> denominaciones) {
+        long[] efecto = new long[Billetes.CANTIDAD];
+        int signo = signoEnSaldo(tipoTransaccion);
+        if (signo == 0 || denominaciones == null) {
+            return efecto;
+        }
+        for (Denominacion denominacion : denominaciones) {
+            int indice = denominacion.getBillete() == null ? Billetes.NO_VALIDO : Billetes.indice(denominacion.getBillete());
+            if (indice != Billetes.NO_VALIDO && denominacion.getCantidad() != null) {
+                efecto[indice] += (long) signo * denominacion.getCantidad();
+            }
+        }
+        return efecto;
+    }
+
+    public ResultadoEventosDTO aplicar(List<EventoTransaccionDTO> eventos) {
+        List<MovimientoTurno> movimientos = new ArrayList<>(eventos.size());
+        LocalDateTime fechaRecepcion = LocalDateTime.now();
+        for (EventoTransaccionDTO evento : eventos) {
+            MovimientoTurno movimiento = movimientoTurnoMapper.toEntity(evento);
+            movimiento.setFechaRecepcion(fechaRecepcion);
+            movimientos.add(movimiento);
+        }
+
+        // Dos lotes simultáneos sobre el mismo turno chocan al escribir su saldo: la transacción que pierde
+        // se repite completa y en el nuevo intento ve lo que registró la otra
+        for (int intento = 1; ; intento++) {
+            Set<String> turnosTardios = new TreeSet<>();
+            try {
+                ResultadoEventosDTO resultado = transactionTemplate.execute(estado -> aplicarEnTransaccion(movimientos, turnosTardios));
+                log.info("Eventos de transacciones aplicados: {} de {} ({} duplicados, {} tardíos)",
+                    resultado.getAplicados(), resultado.getRecibidos(), resultado.getDuplicados(), resultado.getTardios());
+                if (resultado.getTardios() > 0) {
+                    tardios.increment(resultado.getTardios());
+                    log.warn("{} eventos llegaron para turnos que ya no admiten movimientos {}; quedan en movimientos_turno "
+                        + "con tardio=true y no suman al saldo", resultado.getTardios(), turnosTardios);
+                }
+                return resultado;
+            } catch (TransientDataAccessException | DuplicateKeyException | TransactionSystemException e) {
+                // Cualquier otro error, o agotar los intentos, hace que el publicador reintente el lote completo
+                if (intento >= intentos) {
+                    throw e;
+                }
+                log.debug("Conflicto al aplicar eventos de transacciones, intento {}: {}", intento, e.getMessage());
+                esperar(intento);
+            }
+        }
+    }
+
+    private ResultadoEventosDTO aplicarEnTransaccion(List<MovimientoTurno> movimientos, Set<String> turnosTardios) {
+        // 1. Omitir los movimientos registrados en una entrega anterior o repetidos en el mismo lote
+        Set<String> registrados = codigosRegistrados(movimientos);
+        Map<String, List<MovimientoTurno>> nuevosPorTurno = new LinkedHashMap<>();
+        List<MovimientoTurno> nuevos = new ArrayList<>(movimientos.size());
+        for (MovimientoTurno movimiento : movimientos) {
+            if (registrados.add(movimiento.getCodigoTransaccion())) {
+                movimiento.setId(null);
+                movimiento.setTardio(null);
+                nuevos.add(movimiento);
+                nuevosPorTurno.computeIfAbsent(movimiento.getCodigoTurno(), codigo -> new ArrayList<>()).add(movimiento);
+            }
+        }
+        int duplicados = movimientos.size() - nuevos.size();
+        if (nuevos.isEmpty()) {
+            return new ResultadoEventosDTO(movimientos.size(), 0, duplicados, 0);
+        }
+
+        // 2. Por turno: si todavía admite movimientos, una actualización de saldos_turno con el efecto acumulado;
+        //    si no, sus movimientos se apartan
+        int tardiosLote = 0;
+        for (Map.Entry<String, List<MovimientoTurno>> turno : nuevosPorTurno.entrySet()) {
+            if (admiteMovimientos(turno.getKey(), turno.getValue().size())) {
+                registrarMovimientos(turno.getKey(), turno.getValue());
+            } else {
+                turno.getValue().forEach(movimiento -> movimiento.setTardio(true));
+                tardiosLote += turno.getValue().size();
+                turnosTardios.add(turno.getKey());
+            }
+        }
+
+        // 3. Guardar los movimientos nuevos, también los tardíos
+        mongoTemplate.insert(nuevos, MovimientoTurno.class);
+
+        return new ResultadoEventosDTO(movimientos.size(), nuevos.size() - tardiosLote, duplicados, tardiosLote);
+    }
+
+    // Cuenta los movimientos en el turno solo si está ABIERTO o CERRANDO. Al escribir el turno, esta transacción y
+    // un cierre simultáneo no pueden pasar ambos: o el cierre ve el contador cambiado y revalida, o la proyección
+    // se repite y encuentra el turno CERRADO
+    private boolean admiteMovimientos(String codigoTurno, long cantidad) {
+        Query query = Query.query(Criteria.where("codigoTurno").is(codigoTurno)
+            .and("estado").in(TurnoCaja.ABIERTO, TurnoCaja.CERRANDO));
+        // Por nombre de colección para no incrementar la versión del turno, que solo cambia con su estado
+        return mongoTemplate.updateFirst(query, new Update().inc("movimientosAplicados", cantidad),
+            mongoTemplate.getCollectionName(TurnoCaja.class)).getMatchedCount() > 0;
+    }
+
+    private Set<String> codigosRegistrados(List<MovimientoTurno> movimientos) {
+        List<String> codigos = movimientos.stream().map(MovimientoTurno::getCodigoTransaccion).toList();
+        Query query = Query.query(Criteria.where("codigoTransaccion").in(codigos));
+        query.fields().include("codigoTransaccion");
+        Set<String> registrados = new HashSet<>();
+        for (MovimientoTurno registrado : mongoTemplate.find(query, MovimientoTurno.class)) {
+            registrados.add(registrado.getCodigoTransaccion());
+        }
+        return registrados;
+    }
+
+    private void registrarMovimientos(String codigoTurno, List<MovimientoTurno> movimientos) {
+        BigDecimal efecto = BigDecimal.ZERO;
+        long[] billetes = new long[Billetes.CANTIDAD];
+        for (MovimientoTurno movimiento : movimientos) {
+            efecto = efecto.add(efectoEnSaldo(movimiento.getTipoTransaccion(), movimiento.getMontoTotal()));
+            long[] efectoBilletes = efectoEnBilletes(movimiento.getTipoTransaccion(), movimiento.getDenominaciones());
+            for (int b = 0; b < Billetes.CANTIDAD; b++) {
+                billetes[b] += efectoBilletes[b];
+            }
+        }
+        long cantidadTransacciones = movimientos.size();
+
+        // Solo saldos con el arreglo de billetes: sobre uno sin él, "billetes.i" no se puede incrementar
+        Query query = Query.query(Criteria.where("codigoTurno").is(codigoTurno).and("billetes").ne(null));
+        Update update = incrementos(efecto, cantidadTransacciones);
+        incrementarBilletes(update, billetes);
+
+        if (mongoTemplate.updateFirst(query, update, SaldoTurno.class).getMatchedCount() > 0) {
+            return;
+        }
+        if (inicializarBilletes(codigoTurno)) {
+            mongoTemplate.updateFirst(query, update, SaldoTurno.class);
+            return;
+        }
+        // Primer movimiento del turno: un $inc sobre "billetes.i" en un upsert crearía un subdocumento en lugar
+        // del arreglo, así que el saldo se inserta completo. Si otro lote lo insertó a la vez, la transacción
+        // falla por el índice único de codigoTurno y se repite
+        mongoTemplate.insert(new SaldoTurno(null, codigoTurno, efecto, cantidadTransacciones, billetes, LocalDateTime.now()));
+    }
+
+    // Saldo registrado antes de llevar inventario de billetes (billetes ausente o null). Se completa con el efecto
+    // de los movimientos ya registrados del turno, así el inventario no arranca en cero a mitad del turno.
+    // Devuelve false si el turno todavía no tiene saldo
+    private boolean inicializarBilletes(String codigoTurno) {
+        Query sinBilletes = Query.query(Criteria.where("codigoTurno").is(codigoTurno).and("billetes").is(null));
+        if (!mongoTemplate.exists(sinBilletes, SaldoTurno.class)) {
+            return false;
+        }
+        Query registrados = Query.query(Criteria.where("codigoTurno").is(codigoTurno).and("tardio").ne(true));
+        registrados.fields().include("tipoTransaccion", "denominaciones");
+        long[] billetes = new long[Billetes.CANTIDAD];
+        for (MovimientoTurno movimiento : mongoTemplate.find(registrados, MovimientoTurno.class)) {
+            long[] efectoBilletes = efectoEnBilletes(movimiento.getTipoTransaccion(), movimiento.getDenominaciones());
+            for (int b = 0; b < Billetes.CANTIDAD; b++) {
+                billetes[b] += efectoBilletes[b];
+            }
+        }
+        mongoTemplate.updateFirst(sinBilletes, new Update().set("billetes", billetes), SaldoTurno.class);
+        log.warn("Se inicializó el inventario de billetes del saldo del turno {} a partir de sus movimientos", codigoTurno);
+        return true;
+    }
+
+    private Update incrementos(BigDecimal efecto, long cantidadTransacciones) {
+        return new Update()
+                .inc("montoNeto", new Decimal128(efecto))
+                .inc("cantidadTransacciones", cantidadTransacciones)
+                .set("ultimaActualizacion", LocalDateTime.now());
+    }
+
+    private void incrementarBilletes(Update update, long[] billetes) {
+        for (int i = 0; i < Billetes.CANTIDAD; i++) {
+            if (billetes[i] != 0) {
+                update.inc("billetes." + i, billetes[i]);
+            }
+        }
+    }
+
+    private static void esperar(int intento) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * intento + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al reintentar la aplicación de eventos", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ec.edu.espe.turno.servicio;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Estado de los turnos por codigoTurno para las validaciones que llegan con cada transacción. Se llena al abrir
+// y se actualiza en cada cambio de estado de esta instancia; los cambios hechos por otras instancias llegan por
+// el change stream de turnos_caja (CambiosTurnoListener). Mientras el change stream no esté conectado las
+// consultas van directo a Mongo. Los turnos guardados se comparten entre hilos y no se deben modificar.
+@Component
+@Slf4j
+public class TurnoCajaCache {
+
+    private final Cache<String, TurnoCaja> cache;
+    private final boolean requiereCambios;
+    private volatile boolean sincronizada;
+
+    public TurnoCajaCache(
+            MeterRegistry meterRegistry,
+            @Value("${turno.cache.tamanio-maximo:10000}") long tamanioMaximo,
+            @Value("${turno.cache.ttl:10m}") Duration ttl,
+            @Value("${turno.cache.cambios.habilitado:true}") boolean requiereCambios) {
+        this.requiereCambios = requiereCambios;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "turnos.caja");
+        Gauge.builder("turnos.cache.tasa-aciertos", cache, turnos -> turnos.stats().hitRate())
+                .description("Fracción de consultas de estado de turno resueltas desde la caché")
+                .register(meterRegistry);
+        Gauge.builder("turnos.cache.sincronizada", this, turnos -> turnos.disponible() ? 1 : 0)
+                .description("1 si la caché de turnos está en uso (change stream conectado o no requerido)")
+                .register(meterRegistry);
+    }
+
+    // Devuelve el turno desde la caché o lo carga; las excepciones del cargador se propagan y no se guardan
+    public TurnoCaja obtener(String codigoTurno, Function<String, TurnoCaja> cargador) {
+        if (!disponible()) {
+            return cargador.apply(codigoTurno);
+        }
+        return cache.get(codigoTurno, cargador);
+    }
+
+    // Cambio hecho por esta instancia: se guarda aunque el turno no estuviera en la caché
+    public void registrar(TurnoCaja turno) {
+        if (disponible()) {
+            cache.asMap().merge(turno.getCodigoTurno(), turno, TurnoCajaCache::masReciente);
+        }
+    }
+
+    // Cambio que llega por el change stream: solo interesa si el turno ya estaba en la caché
+    public void actualizar(TurnoCaja turno) {
+        cache.asMap().computeIfPresent(turno.getCodigoTurno(), (codigo, actual) -> masReciente(actual, turno));
+    }
+
+    public void invalidar(String codigoTurno) {
+        cache.invalidate(codigoTurno);
+    }
+
+    public void marcarSincronizada(boolean conectada) {
+        if (!conectada) {
+            // Los cambios que ocurran sin change stream no llegarían: se descarta todo lo guardado
+            cache.invalidateAll();
+        }
+        if (sincronizada != conectada) {
+            log.info("Caché de turnos {}", conectada ? "sincronizada con el change stream" : "sin change stream, consultas directas a Mongo");
+        }
+        sincronizada = conectada;
+    }
+
+    public void invalidarTodo() {
+        cache.invalidateAll();
+    }
+
+    boolean disponible() {
+        return !requiereCambios || sincronizada;
+    }
+
+    // Un evento atrasado o una carga lenta no deben reemplazar un estado posterior
+    private static TurnoCaja masReciente(TurnoCaja actual, TurnoCaja nuevo) {
+        long versionActual = actual.getVersion() == null ? 0 : actual.getVersion();
+        long versionNueva = nuevo.getVersion() == null ? 0 : nuevo.getVersion();
+        return versionNueva >= versionActual ? nuevo : actual;
+    }
+}
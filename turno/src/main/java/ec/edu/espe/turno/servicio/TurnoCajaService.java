@@ -1,22 +1,41 @@
 package ec.edu.espe.turno.servicio;
 
+import ec.edu.espe.turno.dto.DenominacionDTO;
 import ec.edu.espe.turno.dto.TurnoCajaCreacionDTO;
 import ec.edu.espe.turno.dto.TurnoCajaCierreDTO;
+import ec.edu.espe.turno.excepcion.ActualizarTurnoException;
 import ec.edu.espe.turno.excepcion.CrearTurnoException;
 import ec.edu.espe.turno.excepcion.TurnoNoEncontradoException;
 import ec.edu.espe.turno.excepcion.TurnoYaAbiertoException;
 import ec.edu.espe.turno.mapper.TurnoCajaMapper;
+import ec.edu.espe.turno.metricas.MedidorEtapas;
+import ec.edu.espe.turno.modelo.Denominacion;
+import ec.edu.espe.turno.modelo.InventarioBilletes;
+import ec.edu.espe.turno.modelo.ResumenTurno;
+import ec.edu.espe.turno.modelo.SaldoTurno;
+import ec.edu.espe.turno.modelo.TotalTipoTransaccion;
 import ec.edu.espe.turno.modelo.TurnoCaja;
+import ec.edu.espe.turno.repositorio.SaldoTurnoRepositorio;
+import ec.edu.espe.turno.repositorio.TotalesTransaccionRepositorio;
+import ec.edu.espe.turno.repositorio.TransicionTurnoRepositorio;
 import ec.edu.espe.turno.repositorio.TurnoCajaRepositorio;
+import ec.edu.espe.turno.validacion.Billetes;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,89 +43,293 @@ import java.util.List;
 public class TurnoCajaService {
     
     private final TurnoCajaRepositorio turnoCajaRepositorio;
+    private final TransicionTurnoRepositorio transicionTurnoRepositorio;
     private final TurnoCajaMapper turnoCajaMapper;
+    private final NotificacionTransaccionService notificacionTransaccionService;
+    private final SaldoTurnoRepositorio saldoTurnoRepositorio;
+    private final TotalesTransaccionRepositorio totalesTransaccionRepositorio;
+    private final MedidorEtapas medidorEtapas;
+    private final TurnoCajaCache turnoCajaCache;
+    private final MeterRegistry meterRegistry;
+
+    private static final String OPERACION_ABRIR = "abrirTurno";
+    private static final String OPERACION_CERRAR = "cerrarTurno";
+    private static final String OPERACION_VALIDAR = "validarTurno";
+
+    // Si está activo, el cierre recalcula el saldo desde las transacciones para detectar descuadres. Es una
+    // agregación sobre el índice turno_tipo una vez por cierre, así que queda activo salvo que se apague
+    @Value("${turno.cierre.reconciliar-saldo:true}")
+    private boolean reconciliarSaldo;
+
+    // Intentos de congelar el turno al cerrar cuando otra solicitud lo modificó entre la lectura y la actualización
+    @Value("${turno.cierre.intentos:3}")
+    private int intentosCierre;
+
+    // Un turno en CERRANDO por más de este tiempo quedó de un cierre interrumpido y otro cierre lo puede retomar
+    @Value("${turno.cierre.espera-abandonado:2m}")
+    private Duration esperaCierreAbandonado;
+
+    // Si está activo, el cierre compara billete por billete las denominaciones finales con el inventario esperado
+    @Value("${turno.cierre.validar-billetes:true}")
+    private boolean validarBilletes;
+
+    // Si está activo, antes de calcular el saldo se piden al microservicio de transacciones los eventos del turno
+    // que aún no publicó; si no responde el cierre no procede
+    @Value("${turno.cierre.publicar-eventos:true}")
+    private boolean publicarEventos;
     
-    // Inyectar el repositorio de transacciones
-    @Autowired
-    private ec.edu.espe.transaccion.repositorio.TransaccionTurnoRepositorio transaccionTurnoRepositorio;
-    
-    private String generarCodigoTurno(String codigoCaja, String codigoCajero) {
-        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        return codigoCaja + "-" + codigoCajero + "-" + fecha;
+    private String generarCodigoTurno(String codigoCaja, String codigoCajero, LocalDateTime fecha) {
+        return codigoCaja + "-" + codigoCajero + "-" + fecha.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
     }
     
     public TurnoCaja abrirTurno(TurnoCajaCreacionDTO dto) {
+        return medidorEtapas.medirOperacion(OPERACION_ABRIR, () -> abrir(dto));
+    }
+    
+    // Cada etapa queda en turnos.etapa{operacion=abrirTurno}
+    private TurnoCaja abrir(TurnoCajaCreacionDTO dto) {
         log.info("Abriendo turno para caja: {}, cajero: {}", dto.getCodigoCaja(), dto.getCodigoCajero());
         
-        String codigoTurno = generarCodigoTurno(dto.getCodigoCaja(), dto.getCodigoCajero());
+        LocalDateTime ahora = LocalDateTime.now();
+        String codigoTurno = generarCodigoTurno(dto.getCodigoCaja(), dto.getCodigoCajero(), ahora);
         
-        // Verificar si ya existe un turno abierto
-        turnoCajaRepositorio.findByCodigoCajaAndCodigoCajeroAndEstadoAndInicioTurnoBetween(
-            dto.getCodigoCaja(), dto.getCodigoCajero(), "ABIERTO", 
-            LocalDateTime.now().withHour(0).withMinute(0), 
-            LocalDateTime.now().withHour(23).withMinute(59))
-            .ifPresent(turno -> {
-                throw new TurnoYaAbiertoException("TurnoCaja", "Ya existe un turno abierto para este cajero en esta caja");
-            });
-        
-        TurnoCaja turno = turnoCajaMapper.toEntity(dto);
-        turno.setCodigoTurno(codigoTurno);
-        turno.setInicioTurno(LocalDateTime.now());
-        turno.setEstado("ABIERTO");
-        turno.setVersion(1L);
+        TurnoCaja turno = medidorEtapas.medir(OPERACION_ABRIR, "mapeo", () -> {
+            TurnoCaja nuevo = turnoCajaMapper.toEntity(dto);
+            nuevo.setCodigoTurno(codigoTurno);
+            nuevo.setInicioTurno(ahora);
+            nuevo.setEstado(TurnoCaja.ABIERTO);
+            nuevo.setVersion(1L);
+            return nuevo;
+        });
         
+        // Un solo viaje a Mongo: inserta el turno o devuelve el que ya existe para esta caja, cajero y día.
+        // Con solicitudes simultáneas exactamente una lo inserta
+        Optional<TurnoCaja> existente;
         try {
-            TurnoCaja turnoGuardado = turnoCajaRepositorio.save(turno);
-            log.info("Turno abierto exitosamente: {}", codigoTurno);
-            return turnoGuardado;
+            existente = medidorEtapas.medir(OPERACION_ABRIR, "guardado", () -> transicionTurnoRepositorio.abrirSiNoExiste(turno));
+        } catch (DuplicateKeyException e) {
+            // Inserción simultánea que Mongo no reintentó: la otra solicitud ya abrió el turno
+            throw new TurnoYaAbiertoException("TurnoCaja", "Ya existe un turno abierto para este cajero en esta caja");
         } catch (Exception e) {
             log.error("Error al abrir turno: {}", e.getMessage());
             throw new CrearTurnoException("TurnoCaja", "Error al abrir turno: " + e.getMessage());
         }
+        
+        existente.ifPresent(actual -> {
+            if (TurnoCaja.ABIERTO.equals(actual.getEstado())) {
+                throw new TurnoYaAbiertoException("TurnoCaja", "Ya existe un turno abierto para este cajero en esta caja");
+            }
+            throw new TurnoYaAbiertoException("TurnoCaja", "El turno de hoy para este cajero en esta caja ya fue cerrado: " + codigoTurno);
+        });
+        turnoCajaCache.registrar(turno);
+        log.info("Turno abierto exitosamente: {}", codigoTurno);
+        return turno;
     }
     
     public TurnoCaja cerrarTurno(TurnoCajaCierreDTO dto) {
+        return medidorEtapas.medirOperacion(OPERACION_CERRAR, () -> cerrar(dto));
+    }
+    
+    // Cada etapa queda en turnos.etapa{operacion=cerrarTurno}
+    private TurnoCaja cerrar(TurnoCajaCierreDTO dto) {
         log.info("Cerrando turno: {}", dto.getCodigoTurno());
         
-        TurnoCaja turno = turnoCajaRepositorio.findByCodigoTurno(dto.getCodigoTurno())
-            .orElseThrow(() -> new TurnoNoEncontradoException("Turno no encontrado: " + dto.getCodigoTurno(), 2, "TurnoCaja"));
-        
-        if (!"ABIERTO".equals(turno.getEstado())) {
-            throw new TurnoNoEncontradoException("El turno no está abierto: " + dto.getCodigoTurno(), 2, "TurnoCaja");
-        }
+        // 1. Congelar: ABIERTO -> CERRANDO con una actualización condicionada a la versión leída.
+        //    Desde aquí las validaciones rechazan transacciones nuevas para este turno
+        TurnoCaja turno = medidorEtapas.medir(OPERACION_CERRAR, "congelado", () -> congelar(dto.getCodigoTurno()));
+        turnoCajaCache.registrar(turno);
+        // Se invalida ya la caché de turnos abiertos del microservicio de transacciones; si el cierre no
+        // procede, el turno se vuelve a cachear en la siguiente validación
+        medidorEtapas.medir(OPERACION_CERRAR, "notificacion",
+            () -> notificacionTransaccionService.notificarTurnoCerrado(turno.getCodigoTurno()));
 
         // === VALIDACIÓN DE MONTO FINAL ===
-        // 1. Obtener todas las transacciones del turno
-        List<ec.edu.espe.transaccion.modelo.TransaccionTurno> transacciones = transaccionTurnoRepositorio.findByCodigoTurno(dto.getCodigoTurno());
-        // 2. Calcular el monto esperado
-        BigDecimal montoEsperado = turno.getMontoInicial();
-        for (ec.edu.espe.transaccion.modelo.TransaccionTurno txn : transacciones) {
-            if ("DEPOSITO".equalsIgnoreCase(txn.getTipoTransaccion()) || "AHORRO".equalsIgnoreCase(txn.getTipoTransaccion())) {
-                montoEsperado = montoEsperado.add(txn.getMontoTotal());
-            } else if ("RETIRO".equalsIgnoreCase(txn.getTipoTransaccion())) {
-                montoEsperado = montoEsperado.subtract(txn.getMontoTotal());
-            }
-        }
-        // 3. Comparar con el monto final ingresado
+        try {
+            // 2. El saldo se proyecta de forma asíncrona: se aplican primero las transacciones del turno que
+            //    siguen en la bandeja de salida del microservicio de transacciones
+            if (publicarEventos) {
+                medidorEtapas.medir(OPERACION_CERRAR, "eventos",
+                    () -> notificacionTransaccionService.publicarEventosPendientes(turno.getCodigoTurno()));
+            }
+            for (int intento = 1; ; intento++) {
+                // 3. Validar contra el saldo con los movimientos aplicados hasta ahora
+                TurnoCaja validado = medidorEtapas.medir(OPERACION_CERRAR, "relectura", () -> releerCongelado(turno));
+                validarMontoFinal(validado, dto);
+
+                // 4. CERRANDO -> CERRADO, condicionado a la versión del congelado y a los movimientos validados
+                Optional<TurnoCaja> turnoCerrado;
+                try {
+                    turnoCerrado = medidorEtapas.medir(OPERACION_CERRAR, "guardado",
+                        () -> transicionTurnoRepositorio.cerrar(validado, dto.getMontoFinal(), LocalDateTime.now()));
+                } catch (Exception e) {
+                    log.error("Error al cerrar turno: {}", e.getMessage());
+                    throw new ActualizarTurnoException("TurnoCaja", "Error al cerrar turno: " + e.getMessage());
+                }
+                if (turnoCerrado.isPresent()) {
+                    turnoCajaCache.registrar(turnoCerrado.get());
+                    log.info("Turno cerrado exitosamente: {}", dto.getCodigoTurno());
+                    return turnoCerrado.get();
+                }
+                // Llegó un movimiento validado antes del congelado después de leer el saldo: se valida de nuevo
+                if (intento >= intentosCierre) {
+                    throw new ActualizarTurnoException("TurnoCaja",
+                        "Siguen llegando transacciones al turno durante el cierre, intente nuevamente: " + dto.getCodigoTurno());
+                }
+                log.debug("Movimientos nuevos durante el cierre del turno {}, intento {}", dto.getCodigoTurno(), intento);
+            }
+        } catch (RuntimeException e) {
+            // El cierre no procede: el turno vuelve a admitir transacciones
+            if (!transicionTurnoRepositorio.reabrir(turno)) {
+                log.warn("El turno {} cambió mientras se validaba su cierre; no se reabre", turno.getCodigoTurno());
+            }
+            turnoCajaCache.invalidar(turno.getCodigoTurno());
+            throw e;
+        }
+        // === FIN VALIDACIÓN ===
+    }
+
+    // El turno tal como quedó al congelarlo, con sus movimientos aplicados al momento de leerlo
+    private TurnoCaja releerCongelado(TurnoCaja congelado) {
+        return turnoCajaRepositorio.findByCodigoTurno(congelado.getCodigoTurno())
+            .filter(actual -> TurnoCaja.CERRANDO.equals(actual.getEstado())
+                && congelado.getVersion().equals(actual.getVersion()))
+            // Solo ocurre si otro cierre retomó este por considerarlo abandonado
+            .orElseThrow(() -> new ActualizarTurnoException("TurnoCaja",
+                "Otra solicitud tomó el cierre del turno: " + congelado.getCodigoTurno()));
+    }
+
+    private void validarMontoFinal(TurnoCaja turno, TurnoCajaCierreDTO dto) {
+        // Calcular el monto esperado a partir del saldo acumulado del turno y compararlo con el ingresado
+        BigDecimal montoEsperado = medidorEtapas.medir(OPERACION_CERRAR, "saldo", () -> calcularMontoEsperado(turno));
         if (montoEsperado.compareTo(dto.getMontoFinal()) != 0) {
             throw new IllegalArgumentException("El monto final ingresado (" + dto.getMontoFinal() + ") no coincide con el monto esperado (" + montoEsperado + ") según las transacciones del turno.");
         }
-        // === FIN VALIDACIÓN ===
+        // Comparar billete por billete con el inventario que debería tener la caja
+        if (validarBilletes) {
+            medidorEtapas.medir(OPERACION_CERRAR, "billetes", () -> validarBilletesFinales(turno, dto.getDenominacionesFinales()));
+        }
+    }
 
-        turno.setFinTurno(LocalDateTime.now());
-        turno.setMontoFinal(dto.getMontoFinal());
-        turno.setEstado("CERRADO");
-        turno.setVersion(turno.getVersion() + 1L);
-        
-        try {
-            TurnoCaja turnoCerrado = turnoCajaRepositorio.save(turno);
-            log.info("Turno cerrado exitosamente: {}", dto.getCodigoTurno());
-            return turnoCerrado;
-        } catch (Exception e) {
-            log.error("Error al cerrar turno: {}", e.getMessage());
-            throw new CrearTurnoException("TurnoCaja", "Error al cerrar turno: " + e.getMessage());
+    // Reintenta mientras la actualización condicional falle porque el turno cambió después de leerlo
+    private TurnoCaja congelar(String codigoTurno) {
+        for (int intento = 1; ; intento++) {
+            TurnoCaja turno = turnoCajaRepositorio.findByCodigoTurno(codigoTurno)
+                .orElseThrow(() -> new TurnoNoEncontradoException("Turno no encontrado: " + codigoTurno, 2, "TurnoCaja"));
+            LocalDateTime ahora = LocalDateTime.now();
+
+            if (TurnoCaja.CERRANDO.equals(turno.getEstado()) && !cierreAbandonado(turno, ahora)) {
+                throw new TurnoNoEncontradoException("El turno ya se está cerrando: " + codigoTurno, 2, "TurnoCaja");
+            }
+            if (!TurnoCaja.ABIERTO.equals(turno.getEstado()) && !TurnoCaja.CERRANDO.equals(turno.getEstado())) {
+                throw new TurnoNoEncontradoException("El turno no está abierto: " + codigoTurno, 2, "TurnoCaja");
+            }
+
+            Optional<TurnoCaja> congelado = transicionTurnoRepositorio.congelar(turno, ahora);
+            if (congelado.isPresent()) {
+                if (TurnoCaja.CERRANDO.equals(turno.getEstado())) {
+                    log.warn("Se retoma el cierre abandonado del turno {} iniciado en {}", codigoTurno, turno.getInicioCierre());
+                }
+                return congelado.get();
+            }
+            if (intento >= intentosCierre) {
+                throw new ActualizarTurnoException("TurnoCaja",
+                    "El turno cambió durante el cierre " + intento + " veces, intente nuevamente: " + codigoTurno);
+            }
+            log.debug("Conflicto de versión al cerrar el turno {}, intento {}", codigoTurno, intento);
         }
     }
+
+    private boolean cierreAbandonado(TurnoCaja turno, LocalDateTime ahora) {
+        return turno.getInicioCierre() == null || turno.getInicioCierre().plus(esperaCierreAbandonado).isBefore(ahora);
+    }
+    
+    private BigDecimal calcularMontoEsperado(TurnoCaja turno) {
+        BigDecimal montoNeto = saldoTurnoRepositorio.findByCodigoTurno(turno.getCodigoTurno())
+            .map(SaldoTurno::getMontoNeto)
+            .orElse(BigDecimal.ZERO);
+        BigDecimal montoEsperado = turno.getMontoInicial().add(montoNeto);
+
+        if (reconciliarSaldo) {
+            BigDecimal montoRecalculado = recalcularMontoEsperado(turno);
+            if (montoRecalculado.compareTo(montoEsperado) != 0) {
+                meterRegistry.counter("turnos.saldo.descuadres").increment();
+                log.warn("Descuadre en el saldo del turno {}: acumulado={}, recalculado={}",
+                    turno.getCodigoTurno(), montoEsperado, montoRecalculado);
+                return montoRecalculado;
+            }
+        }
+        return montoEsperado;
+    }
+
+    private void validarBilletesFinales(TurnoCaja turno, List<DenominacionDTO> denominacionesFinales) {
+        Optional<SaldoTurno> saldo = saldoTurnoRepositorio.findByCodigoTurno(turno.getCodigoTurno());
+        if (saldo.isPresent() && saldo.get().getBilletes() == null) {
+            // Saldo registrado antes de llevar inventario de billetes: no hay contra qué comparar
+            log.warn("El turno {} no tiene inventario de billetes, se omite la validación por denominación", turno.getCodigoTurno());
+            return;
+        }
+
+        long[] esperados = calcularBilletesEsperados(turno, saldo);
+        List<String> faltantes = describirFaltantes(esperados);
+        if (!faltantes.isEmpty()) {
+            // Ningún conteo físico coincide con una cantidad negativa: se informa el faltante en lugar de la diferencia
+            throw new IllegalArgumentException("Los retiros del turno entregaron más billetes de los que había en caja: "
+                + String.join("; ", faltantes));
+        }
+        long[] recibidos = new long[Billetes.CANTIDAD];
+        if (denominacionesFinales != null) {
+            // El formato de cada denominación ya lo verificó el validador de cierre
+            for (DenominacionDTO denominacion : denominacionesFinales) {
+                recibidos[Billetes.indice(denominacion.getBillete())] += denominacion.getCantidad();
+            }
+        }
+
+        List<String> diferencias = new ArrayList<>();
+        for (int i = 0; i < Billetes.CANTIDAD; i++) {
+            if (esperados[i] != recibidos[i]) {
+                diferencias.add("billetes de " + Billetes.DENOMINACIONES[i] + ": esperados " + esperados[i] + ", recibidos " + recibidos[i]);
+            }
+        }
+        if (!diferencias.isEmpty()) {
+            throw new IllegalArgumentException("Las denominaciones finales no coinciden con el inventario del turno: " + String.join("; ", diferencias));
+        }
+    }
+
+    // Denominaciones iniciales más el efecto neto de las transacciones, sin recorrer las transacciones
+    private long[] calcularBilletesEsperados(TurnoCaja turno, Optional<SaldoTurno> saldo) {
+        long[] cantidades = new long[Billetes.CANTIDAD];
+        if (turno.getDenominacionesIniciales() != null) {
+            for (Denominacion denominacion : turno.getDenominacionesIniciales()) {
+                int indice = Billetes.indice(denominacion.getBillete());
+                if (indice != Billetes.NO_VALIDO) {
+                    cantidades[indice] += denominacion.getCantidad();
+                }
+            }
+        }
+        long[] movimientos = saldo.map(SaldoTurno::getBilletes).orElse(null);
+        if (movimientos != null) {
+            for (int i = 0; i < Billetes.CANTIDAD && i < movimientos.length; i++) {
+                cantidades[i] += movimientos[i];
+            }
+        }
+        return cantidades;
+    }
+
+    private BigDecimal recalcularMontoEsperado(TurnoCaja turno) {
+        return aplicarTotales(turno.getMontoInicial(), totalesTransaccionRepositorio.totalesPorTipo(turno.getCodigoTurno()));
+    }
+
+    private BigDecimal aplicarTotales(BigDecimal montoInicial, List<TotalTipoTransaccion> totales) {
+        BigDecimal montoEsperado = montoInicial;
+        for (TotalTipoTransaccion total : totales) {
+            if ("DEPOSITO".equalsIgnoreCase(total.getTipoTransaccion()) || "AHORRO".equalsIgnoreCase(total.getTipoTransaccion())) {
+                montoEsperado = montoEsperado.add(total.getMontoTotal());
+            } else if ("RETIRO".equalsIgnoreCase(total.getTipoTransaccion())) {
+                montoEsperado = montoEsperado.subtract(total.getMontoTotal());
+            }
+        }
+        return montoEsperado;
+    }
     
     public TurnoCaja obtenerTurno(String codigoTurno) {
         log.info("Obteniendo turno: {}", codigoTurno);
@@ -114,8 +337,86 @@ public class TurnoCajaService {
             .orElseThrow(() -> new TurnoNoEncontradoException("Turno no encontrado: " + codigoTurno, 2, "TurnoCaja"));
     }
     
+    // Estado del turno para las validaciones de cada transacción; los fallos de caché quedan en la etapa consulta
+    public TurnoCaja obtenerTurnoVigente(String codigoTurno) {
+        return medidorEtapas.medirOperacion(OPERACION_VALIDAR, () -> turnoCajaCache.obtener(codigoTurno,
+            codigo -> medidorEtapas.medir(OPERACION_VALIDAR, "consulta", () -> turnoCajaRepositorio.findByCodigoTurno(codigo))
+                .orElseThrow(() -> new TurnoNoEncontradoException("Turno no encontrado: " + codigo, 2, "TurnoCaja"))));
+    }
+    
+    public ResumenTurno obtenerResumen(String codigoTurno) {
+        log.info("Obteniendo resumen del turno: {}", codigoTurno);
+        TurnoCaja turno = obtenerTurno(codigoTurno);
+        List<TotalTipoTransaccion> totales = totalesTransaccionRepositorio.totalesPorTipo(codigoTurno);
+
+        long cantidadTransacciones = 0;
+        for (TotalTipoTransaccion total : totales) {
+            cantidadTransacciones += total.getCantidad();
+        }
+
+        return new ResumenTurno(
+            turno.getCodigoTurno(),
+            turno.getEstado(),
+            turno.getMontoInicial(),
+            aplicarTotales(turno.getMontoInicial(), totales),
+            cantidadTransacciones,
+            totales);
+    }
+    
+    public InventarioBilletes obtenerInventarioBilletes(String codigoTurno) {
+        log.info("Obteniendo inventario de billetes del turno: {}", codigoTurno);
+        TurnoCaja turno = obtenerTurno(codigoTurno);
+        long[] cantidades = calcularBilletesEsperados(turno, saldoTurnoRepositorio.findByCodigoTurno(codigoTurno));
+
+        // Una cantidad negativa significa que los retiros entregaron billetes que la caja no tenía: la caja queda
+        // en cero para esa denominación y la diferencia se informa aparte como faltante
+        List<Denominacion> billetes = new ArrayList<>(Billetes.CANTIDAD);
+        List<Denominacion> faltantes = new ArrayList<>();
+        BigDecimal montoTotal = BigDecimal.ZERO;
+        BigDecimal montoFaltante = BigDecimal.ZERO;
+        for (int i = 0; i < Billetes.CANTIDAD; i++) {
+            long enCaja = Math.max(cantidades[i], 0);
+            BigDecimal monto = BigDecimal.valueOf(Billetes.DENOMINACIONES[i] * enCaja);
+            billetes.add(new Denominacion(Billetes.DENOMINACIONES[i], Math.toIntExact(enCaja), monto));
+            montoTotal = montoTotal.add(monto);
+            if (cantidades[i] < 0) {
+                BigDecimal faltante = BigDecimal.valueOf(Billetes.DENOMINACIONES[i] * -cantidades[i]);
+                faltantes.add(new Denominacion(Billetes.DENOMINACIONES[i], Math.toIntExact(-cantidades[i]), faltante));
+                montoFaltante = montoFaltante.add(faltante);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            log.warn("El turno {} tiene faltantes de billetes: {}", codigoTurno, String.join("; ", describirFaltantes(cantidades)));
+        }
+        return new InventarioBilletes(codigoTurno, billetes, montoTotal, faltantes, montoFaltante);
+    }
+
+    private List<String> describirFaltantes(long[] cantidades) {
+        List<String> faltantes = new ArrayList<>();
+        for (int i = 0; i < Billetes.CANTIDAD; i++) {
+            if (cantidades[i] < 0) {
+                faltantes.add("billetes de " + Billetes.DENOMINACIONES[i] + ": faltan " + -cantidades[i]);
+            }
+        }
+        return faltantes;
+    }
+    
     public List<TurnoCaja> listarTurnosPorCajero(String codigoCaja, String codigoCajero) {
         log.info("Listando turnos para caja: {}, cajero: {}", codigoCaja, codigoCajero);
         return turnoCajaRepositorio.findByCodigoCajaAndCodigoCajero(codigoCaja, codigoCajero);
     }
-} 
\ No newline at end of file
+    
+    public List<TurnoCaja> listarTurnosPorCajero(String codigoCaja, String codigoCajero, String despuesDe, int tamanio) {
+        log.info("Listando página de turnos para caja: {}, cajero: {}, después de: {}", codigoCaja, codigoCajero, despuesDe);
+        if (despuesDe == null) {
+            return turnoCajaRepositorio.findByCodigoCajaAndCodigoCajeroOrderByIdAsc(codigoCaja, codigoCajero, Limit.of(tamanio));
+        }
+        return turnoCajaRepositorio.findByCodigoCajaAndCodigoCajeroAndIdGreaterThanOrderByIdAsc(
+            codigoCaja, codigoCajero, despuesDe, Limit.of(tamanio));
+    }
+    
+    public Stream<TurnoCaja> streamTurnosPorCajero(String codigoCaja, String codigoCajero) {
+        log.info("Transmitiendo turnos para caja: {}, cajero: {}", codigoCaja, codigoCajero);
+        return turnoCajaRepositorio.streamByCodigoCajaAndCodigoCajeroOrderByIdAsc(codigoCaja, codigoCajero);
+    }
+}
@@ -0,0 +1,24 @@
+package ec.edu.espe.turno.validacion;
+
+// Denominaciones de billetes aceptadas y su posición en arreglos de tamaño fijo
+public final class Billetes {
+
+    public static final int[] DENOMINACIONES = {1, 5, 10, 20, 50, 100};
+    public static final int CANTIDAD = DENOMINACIONES.length;
+    public static final int NO_VALIDO = -1;
+
+    private Billetes() {
+    }
+
+    public static int indice(int billete) {
+        return switch (billete) {
+            case 1 -> 0;
+            case 5 -> 1;
+            case 10 -> 2;
+            case 20 -> 3;
+            case 50 -> 4;
+            case 100 -> 5;
+            default -> NO_VALIDO;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package ec.edu.espe.turno.validacion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Acumula todos los errores de una solicitud en lugar de detenerse en el primero
+public class ResultadoValidacion {
+
+    private List<String> errores;
+
+    public boolean agregarError(String error) {
+        if (errores == null) {
+            errores = new ArrayList<>(4);
+        }
+        errores.add(error);
+        return false;
+    }
+
+    public boolean esValido() {
+        return errores == null;
+    }
+
+    public List<String> getErrores() {
+        return errores == null ? List.of() : Collections.unmodifiableList(errores);
+    }
+
+    public void lanzarSiHayErrores() {
+        if (errores != null) {
+            throw new IllegalArgumentException(String.join("; ", errores));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ec.edu.espe.turno.validacion;
+
+import ec.edu.espe.turno.dto.DenominacionDTO;
+import ec.edu.espe.turno.dto.TurnoCajaCierreDTO;
+import ec.edu.espe.turno.dto.TurnoCajaCreacionDTO;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Validaciones de formato de las solicitudes. Los códigos se revisan carácter por carácter (sin expresiones
+// regulares) y los montos de las denominaciones se comparan en centavos enteros.
+// Cada método registra sus errores en el resultado y devuelve true si el valor es válido.
+@Component
+public class ValidadorSolicitudes {
+
+    private static final long NO_REPRESENTABLE = -1L;
+
+    public ResultadoValidacion validarApertura(TurnoCajaCreacionDTO dto) {
+        ResultadoValidacion resultado = new ResultadoValidacion();
+        validarCodigoCaja(dto.getCodigoCaja(), resultado);
+        validarCodigoCajero(dto.getCodigoCajero(), resultado);
+        if (validarMontoPositivo(dto.getMontoInicial(), "Monto inicial debe ser mayor a 0", resultado)) {
+            validarDenominaciones(dto.getDenominacionesIniciales(), dto.getMontoInicial(), resultado);
+        }
+        return resultado;
+    }
+
+    public ResultadoValidacion validarCierre(TurnoCajaCierreDTO dto) {
+        ResultadoValidacion resultado = new ResultadoValidacion();
+        validarCodigoTurno(dto.getCodigoTurno(), resultado);
+        if (validarMontoPositivo(dto.getMontoFinal(), "Monto final debe ser mayor a 0", resultado)) {
+            validarDenominaciones(dto.getDenominacionesFinales(), dto.getMontoFinal(), resultado);
+        }
+        return resultado;
+    }
+
+    // CAJ + 2 dígitos
+    public boolean validarCodigoCaja(String codigoCaja, ResultadoValidacion resultado) {
+        if (esVacio(codigoCaja)) {
+            return resultado.agregarError("Código de caja es requerido");
+        }
+        if (!tienePrefijoYDigitos(codigoCaja, 0, "CAJ", 2) || codigoCaja.length() != 5) {
+            return resultado.agregarError("Formato de código caja inválido. Use: CAJ01, CAJ02, etc.");
+        }
+        return true;
+    }
+
+    // USU + 2 dígitos
+    public boolean validarCodigoCajero(String codigoCajero, ResultadoValidacion resultado) {
+        if (esVacio(codigoCajero)) {
+            return resultado.agregarError("Código de cajero es requerido");
+        }
+        if (!tienePrefijoYDigitos(codigoCajero, 0, "USU", 2) || codigoCajero.length() != 5) {
+            return resultado.agregarError("Formato de código cajero inválido. Use: USU01, USU02, etc.");
+        }
+        return true;
+    }
+
+    // CAJdd-USUdd-dddddddd
+    public boolean validarCodigoTurno(String codigoTurno, ResultadoValidacion resultado) {
+        if (esVacio(codigoTurno)) {
+            return resultado.agregarError("Código de turno es requerido");
+        }
+        if (codigoTurno.length() != 20
+                || !tienePrefijoYDigitos(codigoTurno, 0, "CAJ", 2)
+                || codigoTurno.charAt(5) != '-'
+                || !tienePrefijoYDigitos(codigoTurno, 6, "USU", 2)
+                || codigoTurno.charAt(11) != '-'
+                || !sonDigitos(codigoTurno, 12, 8)) {
+            return resultado.agregarError("Formato de código turno inválido. Use: CAJ01-USU01-20250109");
+        }
+        return true;
+    }
+
+    public boolean validarMontoPositivo(BigDecimal monto, String mensaje, ResultadoValidacion resultado) {
+        if (monto == null || monto.signum() <= 0) {
+            return resultado.agregarError(mensaje);
+        }
+        return true;
+    }
+
+    public boolean validarDenominaciones(List<DenominacionDTO> denominaciones, BigDecimal montoTotal, ResultadoValidacion resultado) {
+        if (denominaciones == null || denominaciones.isEmpty()) {
+            return resultado.agregarError("Las denominaciones son requeridas");
+        }
+
+        boolean valido = true;
+        long sumaCentavos = 0;
+        for (int i = 0; i < denominaciones.size(); i++) {
+            DenominacionDTO den = denominaciones.get(i);
+            Integer billete = den.getBillete();
+            if (billete == null || Billetes.indice(billete) == Billetes.NO_VALIDO) {
+                valido = resultado.agregarError("Denominación no válida: " + billete + ". Use: 1, 5, 10, 20, 50, 100");
+                continue;
+            }
+            if (den.getCantidad() == null || den.getCantidad() <= 0) {
+                valido = resultado.agregarError("Cantidad debe ser mayor a 0 para denominación: " + billete);
+                continue;
+            }
+            if (den.getMonto() == null || den.getMonto().signum() <= 0) {
+                valido = resultado.agregarError("Monto debe ser mayor a 0 para denominación: " + billete);
+                continue;
+            }
+
+            // Monto esperado: billete * cantidad, en centavos
+            long esperadoCentavos = (long) billete * den.getCantidad() * 100L;
+            long montoCentavos = aCentavos(den.getMonto());
+            if (montoCentavos != esperadoCentavos) {
+                valido = resultado.agregarError("Monto no coincide con billete * cantidad para denominación: " + billete
+                        + ". Esperado: " + ((long) billete * den.getCantidad()) + ", Recibido: " + den.getMonto());
+                continue;
+            }
+            sumaCentavos += montoCentavos;
+        }
+
+        if (valido && sumaCentavos != aCentavos(montoTotal)) {
+            return resultado.agregarError("La suma de denominaciones (" + BigDecimal.valueOf(sumaCentavos, 2).stripTrailingZeros().toPlainString()
+                    + ") no coincide con el monto total (" + montoTotal + ")");
+        }
+        return valido;
+    }
+
+    // ================= AUXILIARES =================
+
+    // Convierte a centavos sin crear objetos en el caso común (montos enteros)
+    static long aCentavos(BigDecimal monto) {
+        if (monto == null) {
+            return NO_REPRESENTABLE;
+        }
+        try {
+            if (monto.scale() == 0) {
+                return Math.multiplyExact(monto.longValueExact(), 100L);
+            }
+            return monto.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return NO_REPRESENTABLE;
+        }
+    }
+
+    private static boolean esVacio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+
+    private static boolean tienePrefijoYDigitos(String valor, int desde, String prefijo, int digitos) {
+        return valor.length() >= desde + prefijo.length() + digitos
+                && valor.startsWith(prefijo, desde)
+                && sonDigitos(valor, desde + prefijo.length(), digitos);
+    }
+
+    private static boolean sonDigitos(String valor, int desde, int cantidad) {
+        for (int i = desde; i < desde + cantidad; i++) {
+            char c = valor.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
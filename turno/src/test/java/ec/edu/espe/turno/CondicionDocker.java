@@ -0,0 +1,22 @@
+package ec.edu.espe.turno;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.testcontainers.DockerClientFactory;
+
+class CondicionDocker implements ExecutionCondition {
+
+    static final String DOCKER_OBLIGATORIO = "pruebas.docker.obligatorio";
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext contexto) {
+        if (Boolean.getBoolean(DOCKER_OBLIGATORIO)) {
+            return ConditionEvaluationResult.enabled(DOCKER_OBLIGATORIO + "=true");
+        }
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            return ConditionEvaluationResult.enabled("Docker disponible");
+        }
+        return ConditionEvaluationResult.disabled("Sin Docker; con -Pci estas pruebas fallan en lugar de omitirse");
+    }
+}
@@ -0,0 +1,16 @@
+package ec.edu.espe.turno;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Pruebas contra un Mongo real en Testcontainers. Sin Docker se omiten, salvo con el perfil ci
+// (mvn -Pci test), que las ejecuta igual para que fallen en lugar de pasar sin haber comprobado nada
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(CondicionDocker.class)
+public @interface RequiereDocker {
+}
@@ -0,0 +1,62 @@
+package ec.edu.espe.turno.benchmark;
+
+import ec.edu.espe.turno.dto.DenominacionDTO;
+import ec.edu.espe.turno.dto.TurnoCajaCreacionDTO;
+import ec.edu.espe.turno.modelo.Denominacion;
+import ec.edu.espe.turno.modelo.MovimientoTurno;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Datos de prueba compartidos por los benchmarks
+final class DatosBenchmark {
+
+    private static final String[] TIPOS = {"DEPOSITO", "AHORRO", "DEPOSITO", "RETIRO"};
+
+    private DatosBenchmark() {
+    }
+
+    static List<DenominacionDTO> denominacionesDTO() {
+        return List.of(
+            new DenominacionDTO(100, 2, new BigDecimal("200")),
+            new DenominacionDTO(50, 4, new BigDecimal("200")),
+            new DenominacionDTO(20, 3, new BigDecimal("60")),
+            new DenominacionDTO(10, 2, new BigDecimal("20")),
+            new DenominacionDTO(5, 3, new BigDecimal("15")),
+            new DenominacionDTO(1, 5, new BigDecimal("5")));
+    }
+
+    static TurnoCajaCreacionDTO solicitudApertura() {
+        return new TurnoCajaCreacionDTO("CAJ01", "USU01", new BigDecimal("500"), denominacionesDTO());
+    }
+
+    static TurnoCaja turno() {
+        List<Denominacion> denominaciones = List.of(
+            new Denominacion(100, 2, new BigDecimal("200")),
+            new Denominacion(50, 4, new BigDecimal("200")),
+            new Denominacion(20, 3, new BigDecimal("60")),
+            new Denominacion(10, 2, new BigDecimal("20")),
+            new Denominacion(5, 3, new BigDecimal("15")),
+            new Denominacion(1, 5, new BigDecimal("5")));
+        return new TurnoCaja("id", "CAJ01-USU01-20250109", "CAJ01", "USU01", LocalDateTime.now(), new BigDecimal("500"),
+            null, null, "ABIERTO", denominaciones, 1L, null, null);
+    }
+
+    static List<MovimientoTurno> movimientos(int cantidad) {
+        List<Denominacion> denominaciones = List.of(
+            new Denominacion(100, 2, new BigDecimal("200")),
+            new Denominacion(20, 3, new BigDecimal("60")),
+            new Denominacion(5, 4, new BigDecimal("20")),
+            new Denominacion(1, 5, new BigDecimal("5")));
+        List<MovimientoTurno> movimientos = new ArrayList<>(cantidad);
+        LocalDateTime fecha = LocalDateTime.now();
+        for (int i = 0; i < cantidad; i++) {
+            movimientos.add(new MovimientoTurno(null, "TXN" + String.format("%08d", i), "CAJ01-USU01-20250109",
+                TIPOS[i % TIPOS.length], new BigDecimal("285"), denominaciones, fecha, fecha, null));
+        }
+        return movimientos;
+    }
+}
@@ -0,0 +1,42 @@
+package ec.edu.espe.turno.benchmark;
+
+import ec.edu.espe.turno.dto.TurnoCajaCreacionDTO;
+import ec.edu.espe.turno.dto.TurnoCajaDTO;
+import ec.edu.espe.turno.mapper.DenominacionMapperImpl;
+import ec.edu.espe.turno.mapper.TurnoCajaMapperImpl;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeoTurnoBenchmark {
+
+    private TurnoCajaMapperImpl mapper;
+    private TurnoCajaCreacionDTO solicitud;
+    private TurnoCaja turno;
+
+    @Setup
+    public void preparar() {
+        mapper = new TurnoCajaMapperImpl();
+        ReflectionTestUtils.setField(mapper, "denominacionMapper", new DenominacionMapperImpl());
+        solicitud = DatosBenchmark.solicitudApertura();
+        turno = DatosBenchmark.turno();
+    }
+
+    @Benchmark
+    public TurnoCaja dtoAEntidad() {
+        return mapper.toEntity(solicitud);
+    }
+
+    @Benchmark
+    public TurnoCajaDTO entidadADto() {
+        return mapper.toDTO(turno);
+    }
+}
@@ -0,0 +1,51 @@
+package ec.edu.espe.turno.benchmark;
+
+import ec.edu.espe.turno.modelo.MovimientoTurno;
+import ec.edu.espe.turno.servicio.ProyeccionTurnoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compara el recorrido completo de los movimientos del turno (cálculo original de cerrarTurno)
+// con el saldo incremental que mantiene la proyección al recibir cada evento.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaldoTurnoBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int cantidadMovimientos;
+
+    private List<MovimientoTurno> movimientos;
+    private BigDecimal montoInicial;
+    private BigDecimal montoNeto;
+
+    @Setup
+    public void preparar() {
+        movimientos = DatosBenchmark.movimientos(cantidadMovimientos);
+        montoInicial = new BigDecimal("500");
+        montoNeto = BigDecimal.ZERO;
+        for (MovimientoTurno movimiento : movimientos) {
+            montoNeto = montoNeto.add(ProyeccionTurnoService.efectoEnSaldo(movimiento.getTipoTransaccion(), movimiento.getMontoTotal()));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal recorridoCompleto() {
+        BigDecimal montoEsperado = montoInicial;
+        for (MovimientoTurno movimiento : movimientos) {
+            montoEsperado = montoEsperado.add(ProyeccionTurnoService.efectoEnSaldo(movimiento.getTipoTransaccion(), movimiento.getMontoTotal()));
+        }
+        return montoEsperado;
+    }
+
+    @Benchmark
+    public BigDecimal saldoIncremental() {
+        return montoInicial.add(montoNeto);
+    }
+}
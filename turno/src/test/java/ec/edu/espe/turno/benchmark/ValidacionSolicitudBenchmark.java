@@ -0,0 +1,66 @@
+package ec.edu.espe.turno.benchmark;
+
+import ec.edu.espe.turno.dto.DenominacionDTO;
+import ec.edu.espe.turno.dto.TurnoCajaCreacionDTO;
+import ec.edu.espe.turno.validacion.ResultadoValidacion;
+import ec.edu.espe.turno.validacion.ValidadorSolicitudes;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacionSolicitudBenchmark {
+
+    private static final Set<Integer> DENOMINACIONES_VALIDAS = Set.of(1, 5, 10, 20, 50, 100);
+
+    private ValidadorSolicitudes validador;
+    private TurnoCajaCreacionDTO solicitud;
+
+    @Setup
+    public void preparar() {
+        validador = new ValidadorSolicitudes();
+        solicitud = DatosBenchmark.solicitudApertura();
+    }
+
+    @Benchmark
+    public ResultadoValidacion validadorCompartido() {
+        return validador.validarApertura(solicitud);
+    }
+
+    @Benchmark
+    public boolean validacionAnterior() {
+        return validarComoAntes(solicitud);
+    }
+
+    /**
+     * Réplica de la validación que hacía el controlador antes de compartir el validador:
+     * String.matches compila la expresión en cada llamada y las denominaciones se
+     * verifican con multiplicaciones BigDecimal.
+     */
+    private static boolean validarComoAntes(TurnoCajaCreacionDTO dto) {
+        if (!dto.getCodigoCaja().matches("^CAJ\\d{2}$")
+                || !dto.getCodigoCajero().matches("^USU\\d{2}$")
+                || dto.getMontoInicial().compareTo(BigDecimal.ZERO) <= 0) {
+            return false;
+        }
+        BigDecimal suma = BigDecimal.ZERO;
+        for (DenominacionDTO den : dto.getDenominacionesIniciales()) {
+            if (!DENOMINACIONES_VALIDAS.contains(den.getBillete())) {
+                return false;
+            }
+            BigDecimal montoEsperado = BigDecimal.valueOf(den.getBillete()).multiply(BigDecimal.valueOf(den.getCantidad()));
+            if (montoEsperado.compareTo(den.getMonto()) != 0) {
+                return false;
+            }
+            suma = suma.add(den.getMonto());
+        }
+        return suma.compareTo(dto.getMontoInicial()) == 0;
+    }
+}
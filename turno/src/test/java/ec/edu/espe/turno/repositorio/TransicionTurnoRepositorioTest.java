@@ -0,0 +1,159 @@
+package ec.edu.espe.turno.repositorio;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import ec.edu.espe.turno.RequiereDocker;
+import ec.edu.espe.turno.modelo.Denominacion;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Aperturas simultáneas contra un Mongo real: por cada caja, cajero y día debe quedar un solo turno
+@Testcontainers
+@RequiereDocker
+class TransicionTurnoRepositorioTest {
+
+    private static final int HILOS = 32;
+    private static final int CAJEROS = 10;
+    private static final String FECHA = "20250109";
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    private static MongoClient cliente;
+    private static MongoTemplate mongoTemplate;
+    private TransicionTurnoRepositorio repositorio;
+
+    @BeforeAll
+    static void conectar() {
+        cliente = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(cliente, "prueba_turnos");
+    }
+
+    @AfterAll
+    static void desconectar() {
+        cliente.close();
+    }
+
+    @BeforeEach
+    void preparar() {
+        mongoTemplate.dropCollection(TurnoCaja.class);
+        mongoTemplate.indexOps(TurnoCaja.class).ensureIndex(new Index().on("codigoTurno", Sort.Direction.ASC).unique());
+        repositorio = new TransicionTurnoRepositorio(mongoTemplate);
+    }
+
+    @Test
+    void unaSolaAperturaPorCajaCajeroYDiaConSolicitudesSimultaneas() throws Exception {
+        Map<String, AtomicInteger> abiertos = new ConcurrentHashMap<>();
+        CyclicBarrier salida = new CyclicBarrier(HILOS);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                futuros.add(executor.submit(() -> {
+                    salida.await();
+                    // Todos los hilos intentan abrir los mismos turnos, como dobles clics y reintentos
+                    for (int c = 0; c < CAJEROS; c++) {
+                        TurnoCaja turno = turno(c);
+                        try {
+                            if (repositorio.abrirSiNoExiste(turno).isEmpty()) {
+                                abiertos.computeIfAbsent(turno.getCodigoTurno(), codigo -> new AtomicInteger()).incrementAndGet();
+                            }
+                        } catch (DuplicateKeyException e) {
+                            // Perdió la carrera de inserción; TurnoCajaService lo trata como turno ya abierto
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(CAJEROS, abiertos.size());
+        abiertos.forEach((codigo, veces) -> assertEquals(1, veces.get(), "Aperturas de " + codigo));
+        assertEquals(CAJEROS, mongoTemplate.count(new Query(), TurnoCaja.class));
+        for (TurnoCaja guardado : mongoTemplate.findAll(TurnoCaja.class)) {
+            assertEquals("ABIERTO", guardado.getEstado());
+            assertEquals(1L, guardado.getVersion());
+            assertEquals(0, new BigDecimal("500").compareTo(guardado.getMontoInicial()));
+            assertEquals(1, guardado.getDenominacionesIniciales().size());
+        }
+    }
+
+    @Test
+    void aperturaRepetidaDevuelveElTurnoExistenteSinModificarlo() {
+        TurnoCaja primero = turno(0);
+        assertTrue(repositorio.abrirSiNoExiste(primero).isEmpty());
+
+        TurnoCaja segundo = turno(0);
+        segundo.setMontoInicial(new BigDecimal("900"));
+        Optional<TurnoCaja> existente = repositorio.abrirSiNoExiste(segundo);
+
+        assertTrue(existente.isPresent());
+        assertEquals(primero.getId(), existente.get().getId());
+        TurnoCaja guardado = mongoTemplate.findOne(
+            Query.query(Criteria.where("codigoTurno").is(primero.getCodigoTurno())), TurnoCaja.class);
+        assertEquals(0, new BigDecimal("500").compareTo(guardado.getMontoInicial()));
+    }
+
+    @Test
+    void guardarConVersionDesactualizadaFalla() {
+        repositorio.abrirSiNoExiste(turno(0));
+        TurnoCaja leido = mongoTemplate.findAll(TurnoCaja.class).get(0);
+        TurnoCaja otraCopia = mongoTemplate.findAll(TurnoCaja.class).get(0);
+
+        leido.setEstado("CERRADO");
+        mongoTemplate.save(leido);
+        assertEquals(2L, leido.getVersion());
+
+        otraCopia.setMontoFinal(BigDecimal.TEN);
+        assertThrows(OptimisticLockingFailureException.class, () -> mongoTemplate.save(otraCopia));
+    }
+
+    private static TurnoCaja turno(int cajero) {
+        String codigoCajero = String.format("USU%02d", cajero);
+        TurnoCaja turno = new TurnoCaja();
+        turno.setCodigoTurno("CAJ01-" + codigoCajero + "-" + FECHA);
+        turno.setCodigoCaja("CAJ01");
+        turno.setCodigoCajero(codigoCajero);
+        turno.setInicioTurno(LocalDateTime.now());
+        turno.setMontoInicial(new BigDecimal("500"));
+        turno.setEstado("ABIERTO");
+        turno.setDenominacionesIniciales(List.of(new Denominacion(100, 5, new BigDecimal("500"))));
+        turno.setVersion(1L);
+        return turno;
+    }
+}
@@ -0,0 +1,261 @@
+package ec.edu.espe.turno.servicio;
+
+import ec.edu.espe.turno.config.VerificadorIndicesConfig;
+import ec.edu.espe.turno.dto.EventoTransaccionDTO;
+import ec.edu.espe.turno.dto.TurnoCajaCierreDTO;
+import ec.edu.espe.turno.dto.TurnoCajaCreacionDTO;
+import ec.edu.espe.turno.excepcion.ActualizarTurnoException;
+import ec.edu.espe.turno.excepcion.TurnoNoEncontradoException;
+import ec.edu.espe.turno.excepcion.TurnoYaAbiertoException;
+import ec.edu.espe.turno.modelo.MovimientoTurno;
+import ec.edu.espe.turno.modelo.SaldoTurno;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import ec.edu.espe.turno.repositorio.SaldoTurnoRepositorio;
+import ec.edu.espe.turno.RequiereDocker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Carga concurrente de apertura, transacciones y cierre sobre un Mongo real: cada turno se abre y se cierra
+// exactamente una vez y los depósitos aceptados quedan todos en el saldo, sin actualizaciones perdidas
+@SpringBootTest(properties = {"trazas.archivo.habilitado=false", "turno.cierre.validar-billetes=false",
+    "turno.cierre.publicar-eventos=false", "turno.eventos.intentos=50"})
+@Testcontainers
+@RequiereDocker
+class CierreTurnoConcurrenteTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CierreTurnoConcurrenteTest.class);
+
+    private static final int TURNOS = 20;
+    private static final int APERTURAS_POR_TURNO = 2;
+    private static final int CAJEROS_POR_TURNO = 3;
+    private static final int DEPOSITOS_POR_CAJERO = 40;
+    private static final int CIERRES_POR_TURNO = 2;
+    private static final int INTENTOS_CIERRE = 500;
+    private static final BigDecimal MONTO_INICIAL = new BigDecimal("500");
+    private static final BigDecimal DEPOSITO = BigDecimal.TEN;
+
+    @Container
+    @ServiceConnection
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    @Autowired
+    private VerificadorIndicesConfig verificadorIndices;
+
+    @Autowired
+    private TurnoCajaService turnoCajaService;
+
+    @Autowired
+    private ProyeccionTurnoService proyeccionTurnoService;
+
+    @Autowired
+    private SaldoTurnoRepositorio saldoTurnoRepositorio;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @MockitoBean
+    private NotificacionTransaccionService notificacionTransaccionService;
+
+    private final AtomicLong secuenciaTransacciones = new AtomicLong();
+
+    @BeforeEach
+    void limpiar() throws InterruptedException {
+        // Los índices únicos se crean en segundo plano al arrancar; la aplicación no está disponible hasta tenerlos
+        long limite = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!verificadorIndices.indicesListos()) {
+            assertTrue(System.nanoTime() - limite < 0, "Los índices de Mongo no se crearon a tiempo");
+            Thread.sleep(50);
+        }
+        mongoTemplate.remove(new Query(), TurnoCaja.class);
+        mongoTemplate.remove(new Query(), SaldoTurno.class);
+        mongoTemplate.remove(new Query(), MovimientoTurno.class);
+    }
+
+    @Test
+    void cierresSimultaneosCierranUnaSolaVez() throws Exception {
+        TurnoCaja turno = turnoCajaService.abrirTurno(apertura("CAJ02", "USU01"));
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger cerrados = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+
+        List<Callable<Void>> cierres = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            cierres.add(() -> {
+                salida.await();
+                try {
+                    turnoCajaService.cerrarTurno(new TurnoCajaCierreDTO(turno.getCodigoTurno(), MONTO_INICIAL, null));
+                    cerrados.incrementAndGet();
+                } catch (TurnoNoEncontradoException | ActualizarTurnoException e) {
+                    rechazados.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        ejecutar(cierres, salida);
+
+        assertEquals(1, cerrados.get());
+        assertEquals(7, rechazados.get());
+        TurnoCaja guardado = turnoCajaService.obtenerTurno(turno.getCodigoTurno());
+        assertEquals(TurnoCaja.CERRADO, guardado.getEstado());
+        // Apertura, congelado y cierre
+        assertEquals(3L, guardado.getVersion());
+    }
+
+    @Test
+    void cargaDeAperturaTransaccionesYCierre() throws Exception {
+        AtomicInteger aperturas = new AtomicInteger();
+        AtomicInteger cierres = new AtomicInteger();
+        AtomicInteger reintentosCierre = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        AtomicInteger[] depositosPorTurno = new AtomicInteger[TURNOS];
+        CountDownLatch salida = new CountDownLatch(1);
+
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int t = 0; t < TURNOS; t++) {
+            String codigoCajero = String.format("USU%02d", t);
+            String codigoTurno = codigoTurno("CAJ01", codigoCajero);
+            AtomicInteger depositos = depositosPorTurno[t] = new AtomicInteger();
+            CountDownLatch abierto = new CountDownLatch(1);
+
+            for (int a = 0; a < APERTURAS_POR_TURNO; a++) {
+                tareas.add(() -> {
+                    salida.await();
+                    try {
+                        turnoCajaService.abrirTurno(apertura("CAJ01", codigoCajero));
+                        aperturas.incrementAndGet();
+                    } catch (TurnoYaAbiertoException e) {
+                        // La otra apertura simultánea ganó
+                    }
+                    abierto.countDown();
+                    return null;
+                });
+            }
+            for (int c = 0; c < CAJEROS_POR_TURNO; c++) {
+                tareas.add(() -> {
+                    abierto.await();
+                    // Misma secuencia que una transacción: validar que el turno esté abierto y registrar el movimiento
+                    for (int d = 0; d < DEPOSITOS_POR_CAJERO; d++) {
+                        String estado = turnoCajaService.obtenerTurno(codigoTurno).getEstado();
+                        if (TurnoCaja.CERRADO.equals(estado)) {
+                            return null;
+                        }
+                        if (TurnoCaja.ABIERTO.equals(estado)) {
+                            // Si el cierre terminó entretanto el depósito queda apartado como tardío
+                            depositos.addAndGet(proyeccionTurnoService.aplicar(List.of(deposito(codigoTurno, codigoCajero))).getAplicados());
+                        } else {
+                            // Congelado por un cierre en curso: la transacción se rechaza
+                            rechazadas.incrementAndGet();
+                            Thread.sleep(1);
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (int c = 0; c < CIERRES_POR_TURNO; c++) {
+                tareas.add(() -> {
+                    abierto.await();
+                    Thread.sleep(50);
+                    for (int intento = 0; intento < INTENTOS_CIERRE; intento++) {
+                        BigDecimal montoNeto = saldoTurnoRepositorio.findByCodigoTurno(codigoTurno)
+                            .map(SaldoTurno::getMontoNeto).orElse(BigDecimal.ZERO);
+                        try {
+                            turnoCajaService.cerrarTurno(new TurnoCajaCierreDTO(codigoTurno, MONTO_INICIAL.add(montoNeto), null));
+                            cierres.incrementAndGet();
+                            return null;
+                        } catch (IllegalArgumentException | ActualizarTurnoException | TurnoNoEncontradoException e) {
+                            // Descuadre por un depósito que entró antes del congelado, o el otro cierre está en curso
+                            if (TurnoCaja.CERRADO.equals(turnoCajaService.obtenerTurno(codigoTurno).getEstado())) {
+                                return null;
+                            }
+                            reintentosCierre.incrementAndGet();
+                            Thread.sleep(5);
+                        }
+                    }
+                    throw new AssertionError("No se pudo cerrar el turno " + codigoTurno);
+                });
+            }
+        }
+
+        long inicio = System.nanoTime();
+        ejecutar(tareas, salida);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        assertEquals(TURNOS, aperturas.get());
+        assertEquals(TURNOS, cierres.get());
+        int totalDepositos = 0;
+        for (int t = 0; t < TURNOS; t++) {
+            String codigoTurno = codigoTurno("CAJ01", String.format("USU%02d", t));
+            TurnoCaja turno = turnoCajaService.obtenerTurno(codigoTurno);
+            SaldoTurno saldo = saldoTurnoRepositorio.findByCodigoTurno(codigoTurno)
+                .orElseGet(() -> new SaldoTurno(null, codigoTurno, BigDecimal.ZERO, 0L, null, null));
+            int depositos = depositosPorTurno[t].get();
+
+            assertEquals(TurnoCaja.CERRADO, turno.getEstado());
+            // Ningún $inc concurrente sobre saldos_turno se perdió
+            assertEquals(depositos, saldo.getCantidadTransacciones());
+            assertEquals(0, DEPOSITO.multiply(BigDecimal.valueOf(depositos)).compareTo(saldo.getMontoNeto()));
+            // El cierre se validó contra todos los depósitos que sumaron al saldo
+            assertEquals(0, MONTO_INICIAL.add(saldo.getMontoNeto()).compareTo(turno.getMontoFinal()));
+            assertEquals(depositos, turno.getMovimientosAplicados() == null ? 0 : turno.getMovimientosAplicados());
+            totalDepositos += depositos;
+        }
+        assertTrue(totalDepositos > 0);
+        log.info("Carga de turnos: {} turnos, {} depósitos en {} s ({} depósitos/s), {} rechazados por turno congelado, "
+            + "{} reintentos de cierre", TURNOS, totalDepositos, String.format("%.2f", segundos),
+            Math.round(totalDepositos / segundos), rechazadas.get(), reintentosCierre.get());
+    }
+
+    private void ejecutar(List<Callable<Void>> tareas, CountDownLatch salida) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Void>> futuros = new ArrayList<>();
+            for (Callable<Void> tarea : tareas) {
+                futuros.add(executor.submit(tarea));
+            }
+            salida.countDown();
+            for (Future<Void> futuro : futuros) {
+                futuro.get();
+            }
+        }
+    }
+
+    private EventoTransaccionDTO deposito(String codigoTurno, String codigoCajero) {
+        return new EventoTransaccionDTO("TXN" + String.format("%013d", secuenciaTransacciones.incrementAndGet()),
+            "CAJ01", codigoCajero, codigoTurno, "DEPOSITO", DEPOSITO, null, LocalDateTime.now());
+    }
+
+    private static TurnoCajaCreacionDTO apertura(String codigoCaja, String codigoCajero) {
+        return new TurnoCajaCreacionDTO(codigoCaja, codigoCajero, MONTO_INICIAL, null);
+    }
+
+    private static String codigoTurno(String codigoCaja, String codigoCajero) {
+        return codigoCaja + "-" + codigoCajero + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+    }
+}
@@ -0,0 +1,200 @@
+package ec.edu.espe.turno.servicio;
+
+import ec.edu.espe.turno.RequiereDocker;
+import ec.edu.espe.turno.config.VerificadorIndicesConfig;
+import ec.edu.espe.turno.dto.DenominacionDTO;
+import ec.edu.espe.turno.dto.EventoTransaccionDTO;
+import ec.edu.espe.turno.dto.ResultadoEventosDTO;
+import ec.edu.espe.turno.modelo.MovimientoTurno;
+import ec.edu.espe.turno.modelo.SaldoTurno;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import ec.edu.espe.turno.repositorio.SaldoTurnoRepositorio;
+import ec.edu.espe.turno.validacion.Billetes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+// Un lote que falla entre el registro de los movimientos y la actualización del saldo se vuelve a entregar:
+// el saldo debe quedar sumado exactamente una vez
+@SpringBootTest(properties = {"trazas.archivo.habilitado=false"})
+@Testcontainers
+@RequiereDocker
+class ProyeccionTurnoServiceTest {
+
+    private static final String CODIGO_TURNO = "CAJ01-USU01-20250109";
+
+    @Container
+    @ServiceConnection
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    @Autowired
+    private VerificadorIndicesConfig verificadorIndices;
+
+    @Autowired
+    private ProyeccionTurnoService proyeccionTurnoService;
+
+    @Autowired
+    private SaldoTurnoRepositorio saldoTurnoRepositorio;
+
+    @MockitoSpyBean
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void limpiar() throws InterruptedException {
+        // Los índices únicos se crean en segundo plano al arrancar; la aplicación no está disponible hasta tenerlos
+        long limite = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!verificadorIndices.indicesListos()) {
+            assertTrue(System.nanoTime() - limite < 0, "Los índices de Mongo no se crearon a tiempo");
+            Thread.sleep(50);
+        }
+        mongoTemplate.remove(new Query(), TurnoCaja.class);
+        mongoTemplate.remove(new Query(), SaldoTurno.class);
+        mongoTemplate.remove(new Query(), MovimientoTurno.class);
+        mongoTemplate.insert(turnoAbierto());
+    }
+
+    @Test
+    void falloAntesDelSaldoSeReintentaSinPerderNiDuplicar() {
+        List<EventoTransaccionDTO> lote = List.of(
+            evento("TXN0000000000001", "DEPOSITO", "100"),
+            evento("TXN0000000000002", "DEPOSITO", "50"),
+            evento("TXN0000000000003", "RETIRO", "30"));
+
+        // Cae justo después de insertar los movimientos, al actualizar saldos_turno
+        falloAlActualizarSaldo();
+        assertThrows(DataAccessResourceFailureException.class, () -> proyeccionTurnoService.aplicar(lote));
+        assertEquals(0, mongoTemplate.count(new Query(), MovimientoTurno.class));
+        assertEquals(0, mongoTemplate.count(new Query(), SaldoTurno.class));
+
+        // El publicador reintenta el lote completo
+        ResultadoEventosDTO reentrega = proyeccionTurnoService.aplicar(lote);
+        assertEquals(3, reentrega.getAplicados());
+        assertEquals(0, reentrega.getDuplicados());
+        verificarSaldo("120", 3);
+
+        // Una entrega repetida después de aplicarse no vuelve a sumar
+        ResultadoEventosDTO repetida = proyeccionTurnoService.aplicar(lote);
+        assertEquals(0, repetida.getAplicados());
+        assertEquals(3, repetida.getDuplicados());
+        verificarSaldo("120", 3);
+    }
+
+    @Test
+    void falloEnUnLotePosteriorNoAfectaLoYaAplicado() {
+        proyeccionTurnoService.aplicar(List.of(evento("TXN0000000000001", "DEPOSITO", "100")));
+
+        List<EventoTransaccionDTO> lote = List.of(
+            evento("TXN0000000000001", "DEPOSITO", "100"),
+            evento("TXN0000000000002", "DEPOSITO", "40"));
+        falloAlActualizarSaldo();
+        assertThrows(DataAccessResourceFailureException.class, () -> proyeccionTurnoService.aplicar(lote));
+        verificarSaldo("100", 1);
+
+        ResultadoEventosDTO reentrega = proyeccionTurnoService.aplicar(lote);
+        assertEquals(1, reentrega.getAplicados());
+        assertEquals(1, reentrega.getDuplicados());
+        verificarSaldo("140", 2);
+    }
+
+    @Test
+    void eventosDeUnTurnoCerradoSeApartanSinSumar() {
+        proyeccionTurnoService.aplicar(List.of(evento("TXN0000000000001", "DEPOSITO", "100")));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("codigoTurno").is(CODIGO_TURNO)),
+            new Update().set("estado", TurnoCaja.CERRADO), TurnoCaja.class);
+
+        // Depósito validado antes del cierre que llega después
+        List<EventoTransaccionDTO> lote = List.of(evento("TXN0000000000002", "DEPOSITO", "40"));
+        ResultadoEventosDTO tardio = proyeccionTurnoService.aplicar(lote);
+        assertEquals(0, tardio.getAplicados());
+        assertEquals(1, tardio.getTardios());
+
+        SaldoTurno saldo = saldoTurnoRepositorio.findByCodigoTurno(CODIGO_TURNO).orElseThrow();
+        assertEquals(0, new BigDecimal("100").compareTo(saldo.getMontoNeto()));
+        assertEquals(1, saldo.getCantidadTransacciones());
+        assertEquals(1, mongoTemplate.count(Query.query(Criteria.where("tardio").is(true)), MovimientoTurno.class));
+        TurnoCaja turno = mongoTemplate.findOne(Query.query(Criteria.where("codigoTurno").is(CODIGO_TURNO)), TurnoCaja.class);
+        assertEquals(1L, turno.getMovimientosAplicados());
+
+        // Una entrega repetida del evento apartado es un duplicado más
+        ResultadoEventosDTO repetida = proyeccionTurnoService.aplicar(lote);
+        assertEquals(1, repetida.getDuplicados());
+        assertEquals(0, repetida.getTardios());
+    }
+
+    @Test
+    void saldoSinInventarioDeBilletesSeCompletaDesdeSusMovimientos() {
+        proyeccionTurnoService.aplicar(List.of(evento("TXN0000000000001", "DEPOSITO", "100", billetesDe10(10))));
+        // Saldo registrado antes de llevar inventario de billetes
+        mongoTemplate.updateFirst(Query.query(Criteria.where("codigoTurno").is(CODIGO_TURNO)),
+            new Update().unset("billetes"), SaldoTurno.class);
+
+        ResultadoEventosDTO resultado = proyeccionTurnoService.aplicar(
+            List.of(evento("TXN0000000000002", "DEPOSITO", "40", billetesDe10(4))));
+        assertEquals(1, resultado.getAplicados());
+
+        SaldoTurno saldo = saldoTurnoRepositorio.findByCodigoTurno(CODIGO_TURNO).orElseThrow();
+        assertEquals(0, new BigDecimal("140").compareTo(saldo.getMontoNeto()));
+        assertEquals(14, saldo.getBilletes()[Billetes.indice(10)]);
+    }
+
+    private void falloAlActualizarSaldo() {
+        doThrow(new DataAccessResourceFailureException("Caída simulada"))
+            .doCallRealMethod()
+            .when(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(SaldoTurno.class));
+    }
+
+    private void verificarSaldo(String montoNeto, long cantidad) {
+        SaldoTurno saldo = saldoTurnoRepositorio.findByCodigoTurno(CODIGO_TURNO).orElseThrow();
+        assertEquals(0, new BigDecimal(montoNeto).compareTo(saldo.getMontoNeto()));
+        assertEquals(cantidad, saldo.getCantidadTransacciones());
+        assertEquals(cantidad, mongoTemplate.count(new Query(), MovimientoTurno.class));
+    }
+
+    private static EventoTransaccionDTO evento(String codigoTransaccion, String tipo, String monto) {
+        return evento(codigoTransaccion, tipo, monto, null);
+    }
+
+    private static EventoTransaccionDTO evento(String codigoTransaccion, String tipo, String monto, List<DenominacionDTO> denominaciones) {
+        return new EventoTransaccionDTO(codigoTransaccion, "CAJ01", "USU01", CODIGO_TURNO, tipo,
+            new BigDecimal(monto), denominaciones, LocalDateTime.now());
+    }
+
+    private static List<DenominacionDTO> billetesDe10(int cantidad) {
+        return List.of(new DenominacionDTO(10, cantidad, BigDecimal.valueOf(10L * cantidad)));
+    }
+
+    private static TurnoCaja turnoAbierto() {
+        TurnoCaja turno = new TurnoCaja();
+        turno.setCodigoTurno(CODIGO_TURNO);
+        turno.setCodigoCaja("CAJ01");
+        turno.setCodigoCajero("USU01");
+        turno.setInicioTurno(LocalDateTime.now());
+        turno.setMontoInicial(new BigDecimal("500"));
+        turno.setEstado(TurnoCaja.ABIERTO);
+        return turno;
+    }
+}
@@ -0,0 +1,136 @@
+package ec.edu.espe.turno.servicio;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import ec.edu.espe.turno.RequiereDocker;
+import ec.edu.espe.turno.modelo.TurnoCaja;
+import ec.edu.espe.turno.repositorio.TransicionTurnoRepositorio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Dos instancias del servicio de turnos sobre el mismo Mongo: lo que cambia una llega a la caché de la otra
+// por el change stream, sin volver a consultar
+@Testcontainers
+@RequiereDocker
+class TurnoCajaCacheTest {
+
+    private static final String CODIGO_TURNO = "CAJ01-USU01-20250109";
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+    private static MongoClient cliente;
+    private static MongoTemplate mongoTemplate;
+
+    private TurnoCajaCache cacheA;
+    private TurnoCajaCache cacheB;
+    private CambiosTurnoListener cambiosB;
+    private TransicionTurnoRepositorio transiciones;
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    @BeforeAll
+    static void conectar() {
+        cliente = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(cliente, "prueba_cache_turnos");
+    }
+
+    @AfterAll
+    static void desconectar() {
+        cliente.close();
+    }
+
+    @BeforeEach
+    void preparar() throws InterruptedException {
+        mongoTemplate.remove(new Query(), TurnoCaja.class);
+        transiciones = new TransicionTurnoRepositorio(mongoTemplate);
+        cacheA = new TurnoCajaCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), false);
+        cacheB = new TurnoCajaCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), true);
+        cambiosB = new CambiosTurnoListener(mongoTemplate, cacheB, true, Duration.ofMillis(100));
+        cambiosB.iniciar();
+        esperarHasta(cacheB::disponible);
+    }
+
+    @AfterEach
+    void detener() {
+        cambiosB.detener();
+    }
+
+    @Test
+    void cierreEnUnaInstanciaActualizaLaCacheDeLaOtra() throws InterruptedException {
+        TurnoCaja abierto = turno();
+        transiciones.abrirSiNoExiste(abierto);
+        cacheA.registrar(abierto);
+
+        // La instancia B valida el turno: la primera vez consulta Mongo, la segunda no
+        assertEquals(TurnoCaja.ABIERTO, cacheB.obtener(CODIGO_TURNO, cargador()).getEstado());
+        assertEquals(TurnoCaja.ABIERTO, cacheB.obtener(CODIGO_TURNO, cargador()).getEstado());
+        assertEquals(1, consultas.get());
+
+        // La instancia A congela el turno para cerrarlo
+        TurnoCaja congelado = transiciones.congelar(abierto, LocalDateTime.now()).orElseThrow();
+        cacheA.registrar(congelado);
+
+        esperarHasta(() -> TurnoCaja.CERRANDO.equals(cacheB.obtener(CODIGO_TURNO, cargador()).getEstado()));
+        assertEquals(1, consultas.get());
+        assertEquals(congelado.getVersion(), cacheB.obtener(CODIGO_TURNO, cargador()).getVersion());
+    }
+
+    @Test
+    void sinChangeStreamLaCacheNoSeUsa() throws InterruptedException {
+        transiciones.abrirSiNoExiste(turno());
+        cambiosB.detener();
+        esperarHasta(() -> !cacheB.disponible());
+
+        cacheB.obtener(CODIGO_TURNO, cargador());
+        cacheB.obtener(CODIGO_TURNO, cargador());
+        assertEquals(2, consultas.get());
+    }
+
+    private Function<String, TurnoCaja> cargador() {
+        return codigo -> {
+            consultas.incrementAndGet();
+            return mongoTemplate.findOne(Query.query(Criteria.where("codigoTurno").is(codigo)), TurnoCaja.class);
+        };
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condicion.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("La condición no se cumplió en 10 s");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static TurnoCaja turno() {
+        TurnoCaja turno = new TurnoCaja();
+        turno.setCodigoTurno(CODIGO_TURNO);
+        turno.setCodigoCaja("CAJ01");
+        turno.setCodigoCajero("USU01");
+        turno.setInicioTurno(LocalDateTime.now());
+        turno.setMontoInicial(new BigDecimal("500"));
+        turno.setEstado(TurnoCaja.ABIERTO);
+        turno.setVersion(1L);
+        return turno;
+    }
+}